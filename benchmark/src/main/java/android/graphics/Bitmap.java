@@ -0,0 +1,40 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android bitmap, which only knows its dimensions. Pixels are not stored.
+ */
+public final class Bitmap {
+	/**
+	 * The possible configurations of a bitmap.
+	 */
+	public enum Config {
+		ALPHA_8,
+		ARGB_4444,
+		ARGB_8888,
+		RGB_565
+	}
+	/**
+	 * The height of the bitmap, in pixels.
+	 */
+	private final int height;
+	/**
+	 * The width of the bitmap, in pixels.
+	 */
+	private final int width;
+	private Bitmap(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+	public static final Bitmap createBitmap(int width, int height, Config config) {
+		return new Bitmap(width, height);
+	}
+	public final int getByteCount() {
+		return width * height * 4;
+	}
+	public final int getHeight() {
+		return height;
+	}
+	public final int getWidth() {
+		return width;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android canvas, which draws nothing.
+ */
+public class Canvas {
+	/**
+	 * The possible edge types passed to the quick reject method.
+	 */
+	public enum EdgeType {
+		AA,
+		BW
+	}
+	public Canvas() {
+	}
+	public Canvas(Bitmap bitmap) {
+	}
+	public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+	}
+	public void drawPath(Path path, Paint paint) {
+	}
+	public boolean quickReject(float left, float top, float right, float bottom, EdgeType type) {
+		return false;
+	}
+	public void restore() {
+	}
+	public int save() {
+		return 1;
+	}
+	public void scale(float sx, float sy) {
+	}
+	public void translate(float dx, float dy) {
+	}
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android matrix, which supports the scales and translations used by the drawers.
+ */
+public class Matrix {
+	/**
+	 * The scale along the x axis.
+	 */
+	/* package */ float scaleX;
+	/**
+	 * The scale along the y axis.
+	 */
+	/* package */ float scaleY;
+	/**
+	 * The translation along the x axis.
+	 */
+	/* package */ float translateX;
+	/**
+	 * The translation along the y axis.
+	 */
+	/* package */ float translateY;
+	public Matrix() {
+		reset();
+	}
+	public boolean postTranslate(float dx, float dy) {
+		translateX += dx;
+		translateY += dy;
+		return true;
+	}
+	public void reset() {
+		setScale(1, 1);
+	}
+	public void setScale(float sx, float sy) {
+		scaleX = sx;
+		scaleY = sy;
+		translateX = translateY = 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android paint, which only holds a colour and flags.
+ */
+public class Paint {
+	public static final int ANTI_ALIAS_FLAG = 0x01;
+	/**
+	 * The colour, as ARGB.
+	 */
+	private int color;
+	/**
+	 * The flags.
+	 */
+	private int flags;
+	public Paint() {
+	}
+	public Paint(int flags) {
+		this.flags = flags;
+	}
+	public int getColor() {
+		return color;
+	}
+	public int getFlags() {
+		return flags;
+	}
+	public void setColor(int color) {
+		this.color = color;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package android.graphics;
+
+import java.util.Arrays;
+
+/**
+ * Stand-in for the Android path, which records the points passed to it. This keeps the amount of work (and allocation) done by
+ * the drawer builders comparable to that on a device.
+ */
+public class Path {
+	/**
+	 * The number of points in the array below.
+	 */
+	private int pointCount;
+	/**
+	 * The points, as (x, y) pairs.
+	 */
+	private float[] points;
+	public Path() {
+		points = new float[16];
+	}
+	private final void add(float x, float y) {
+		if (points.length == pointCount << 1) {
+			points = Arrays.copyOf(points, pointCount << 2);
+		}
+		points[pointCount << 1] = x;
+		points[(pointCount << 1) + 1] = y;
+		pointCount++;
+	}
+	public void addPath(Path source) {
+		for (int index = 0; source.pointCount != index; index++) {
+			add(source.points[index << 1], source.points[(index << 1) + 1]);
+		}
+	}
+	public void close() {
+	}
+	public boolean isEmpty() {
+		return 0 == pointCount;
+	}
+	public void lineTo(float x, float y) {
+		add(x, y);
+	}
+	public void moveTo(float x, float y) {
+		add(x, y);
+	}
+	public void reset() {
+		pointCount = 0;
+	}
+	public void rewind() {
+		pointCount = 0;
+	}
+	public void transform(Matrix matrix, Path destination) {
+		destination.pointCount = 0;
+		for (int index = 0; pointCount != index; index++) {
+			destination.add(points[index << 1] * matrix.scaleX + matrix.translateX,
+					points[(index << 1) + 1] * matrix.scaleY + matrix.translateY);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android point.
+ */
+public class Point {
+	public int x;
+	public int y;
+	public Point() {
+	}
+	public Point(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+	public final boolean equals(int x, int y) {
+		return this.x == x && this.y == y;
+	}
+	public final void set(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+}
\ No newline at end of file
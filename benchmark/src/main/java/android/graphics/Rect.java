@@ -0,0 +1,41 @@
+package android.graphics;
+
+/**
+ * Stand-in for the Android rectangle with integer coordinates.
+ */
+public final class Rect {
+	public int bottom;
+	public int left;
+	public int right;
+	public int top;
+	public Rect() {
+	}
+	public Rect(int left, int top, int right, int bottom) {
+		set(left, top, right, bottom);
+	}
+	public final boolean isEmpty() {
+		return left >= right || top >= bottom;
+	}
+	public final void set(int left, int top, int right, int bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+	public final void setEmpty() {
+		left = top = right = bottom = 0;
+	}
+	public final void union(int left, int top, int right, int bottom) {
+		if (left >= right || top >= bottom) {
+			return;
+		}
+		if (isEmpty()) {
+			set(left, top, right, bottom);
+		} else {
+			this.left = Math.min(this.left, left);
+			this.top = Math.min(this.top, top);
+			this.right = Math.max(this.right, right);
+			this.bottom = Math.max(this.bottom, bottom);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package android.util;
+
+/**
+ * Stand-in for the Android log, which only considers messages of level info and up loggable, and prints those to the standard
+ * error stream.
+ */
+public final class Log {
+	public static final int DEBUG = 3;
+	public static final int ERROR = 6;
+	public static final int INFO = 4;
+	public static final int VERBOSE = 2;
+	public static final int WARN = 5;
+	private Log() {
+	}
+	public static final boolean isLoggable(String tag, int level) {
+		return level >= INFO;
+	}
+	public static final int v(String tag, String message) {
+		return 0;
+	}
+	public static final int w(String tag, Throwable throwable) {
+		System.err.println(tag + ": " + throwable);
+		return 0;
+	}
+}
\ No newline at end of file
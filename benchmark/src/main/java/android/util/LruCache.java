@@ -0,0 +1,69 @@
+package android.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * Stand-in for the Android LRU cache, backed by an access-ordered linked hash map.
+ */
+public class LruCache<K, V> {
+	/**
+	 * The entries, from least to most recently used.
+	 */
+	private final LinkedHashMap<K, V> map;
+	/**
+	 * The maximum size, in the units of the size of method.
+	 */
+	private final int maxSize;
+	/**
+	 * The current size, in the units of the size of method.
+	 */
+	private int size;
+	public LruCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("The maximum size must be positive");
+		}
+		this.maxSize = maxSize;
+		map = new LinkedHashMap<K, V>(0, 0.75f, true);
+	}
+	public final synchronized void evictAll() {
+		trimToSize(-1);
+	}
+	public final synchronized V get(K key) {
+		return map.get(key);
+	}
+	public final synchronized int maxSize() {
+		return maxSize;
+	}
+	public final synchronized V put(K key, V value) {
+		size += sizeOf(key, value);
+		final V previous = map.put(key, value);
+		if (null != previous) {
+			size -= sizeOf(key, previous);
+		}
+		trimToSize(maxSize);
+		return previous;
+	}
+	public final synchronized V remove(K key) {
+		final V previous = map.remove(key);
+		if (null != previous) {
+			size -= sizeOf(key, previous);
+		}
+		return previous;
+	}
+	public final synchronized int size() {
+		return size;
+	}
+	protected int sizeOf(K key, V value) {
+		return 1;
+	}
+	public synchronized void trimToSize(int maxSize) {
+		final Iterator<Entry<K, V>> iterator = map.entrySet().iterator();
+		while (size > maxSize && iterator.hasNext()) {
+			final Entry<K, V> entry = iterator.next();
+			size -= sizeOf(entry.getKey(), entry.getValue());
+			iterator.remove();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * Stand-in for the Android sparse integer array, which like the original keeps its keys sorted and finds them through a binary
+ * search. No objects are allocated per key.
+ */
+public class SparseIntArray {
+	/**
+	 * The keys, in ascending order.
+	 */
+	private int[] keys;
+	/**
+	 * The number of keys and values in the arrays.
+	 */
+	private int size;
+	/**
+	 * The values, in the order of their keys.
+	 */
+	private int[] values;
+	public SparseIntArray() {
+		this(10);
+	}
+	public SparseIntArray(int initialCapacity) {
+		keys = new int[Math.max(1, initialCapacity)];
+		values = new int[Math.max(1, initialCapacity)];
+	}
+	public void clear() {
+		size = 0;
+	}
+	public int get(int key) {
+		return get(key, 0);
+	}
+	public int get(int key, int valueIfKeyNotFound) {
+		final int index = Arrays.binarySearch(keys, 0, size, key);
+		return index < 0 ? valueIfKeyNotFound : values[index];
+	}
+	public void put(int key, int value) {
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		if (index >= 0) {
+			values[index] = value;
+			return;
+		}
+		index = ~index;
+		if (keys.length == size) {
+			keys = Arrays.copyOf(keys, size << 1);
+			values = Arrays.copyOf(values, size << 1);
+		}
+		System.arraycopy(keys, index, keys, index + 1, size - index);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		keys[index] = key;
+		values[index] = value;
+		size++;
+	}
+	public int size() {
+		return size;
+	}
+}
\ No newline at end of file
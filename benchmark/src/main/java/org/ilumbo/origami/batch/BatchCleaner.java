@@ -0,0 +1,433 @@
+package org.ilumbo.origami.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.ilumbo.origami.benchmark.DesktopOrigamiReader;
+import org.ilumbo.origami.cleaning.OrigamiCleaner;
+import org.ilumbo.origami.reading.OrigamiReader;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+import org.ilumbo.origami.reading.ScanningOrigamiReader;
+
+/**
+ * Cleans a directory tree of origami documents in parallel, writing the cleaned documents to another directory tree with the
+ * same structure. Documents are recognised by their extension (".xml" by default).
+ *
+ * Every output is written to a temporary file first, which is then moved into place atomically, so a cleaned document is
+ * never seen half-written. The output directory contains a manifest which holds the SHA-256 hash of the input of every cleaned
+ * document. Documents of which the input has the same hash as in the manifest, and of which the output exists, are skipped.
+ *
+ * Once done, the throughput (in files and megabytes per second), the number of instructions removed and the slowest documents
+ * are printed. The exit code is 0 on success, 1 if any document failed and 2 if the arguments are no good.
+ */
+public final class BatchCleaner {
+	/**
+	 * The outcome of cleaning one document.
+	 */
+	private static final class FileResult {
+		/**
+		 * The number of bytes in the input.
+		 */
+		public final long byteCount;
+		/**
+		 * The exception that was thrown while cleaning the document, or null if cleaning succeeded.
+		 */
+		public final Exception failure;
+		/**
+		 * The SHA-256 hash of the input in hexadecimal, or null if the input could not be read.
+		 */
+		public final String inputHash;
+		/**
+		 * The path of the document relative to the input directory, with forward slashes.
+		 */
+		public final String relativePath;
+		/**
+		 * The number of instructions removed.
+		 */
+		public final int removedInstructionCount;
+		/**
+		 * Whether the document was skipped because its input had not changed.
+		 */
+		public final boolean skipped;
+		/**
+		 * The time it took to read, clean and write the document, in nanoseconds.
+		 */
+		public final long time;
+		public FileResult(String relativePath, String inputHash, long byteCount, int removedInstructionCount, long time,
+				boolean skipped, Exception failure) {
+			this.relativePath = relativePath;
+			this.inputHash = inputHash;
+			this.byteCount = byteCount;
+			this.removedInstructionCount = removedInstructionCount;
+			this.time = time;
+			this.skipped = skipped;
+			this.failure = failure;
+		}
+	}
+	/**
+	 * The name of the manifest file in the output directory.
+	 */
+	private static final String MANIFEST_NAME = ".origami-manifest";
+	/**
+	 * The number of slowest documents printed.
+	 */
+	private static final int SLOWEST_FILE_COUNT = 5;
+	/**
+	 * The usage, printed if the arguments are no good.
+	 */
+	private static final String USAGE = "Usage: BatchCleaner [--threads count] [--extension .xml] [--reference] [--force] " +
+			"input-directory output-directory";
+	/**
+	 * The character set used for the documents and the manifest.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	/**
+	 * The cleaner of every worker thread, which is reset and re-used for every document.
+	 */
+	private final ThreadLocal<OrigamiCleaner> cleaners;
+	/**
+	 * The extension of the documents, including the dot.
+	 */
+	private final String extension;
+	/**
+	 * Whether documents are cleaned even if their input has not changed.
+	 */
+	private final boolean force;
+	/**
+	 * The directory the documents are read from.
+	 */
+	private final Path inputDirectory;
+	/**
+	 * The directory the cleaned documents are written to.
+	 */
+	private final Path outputDirectory;
+	/**
+	 * The hash of the input of every document in the manifest, where the key is the relative path.
+	 */
+	private final Map<String, String> previousHashes;
+	/**
+	 * The reader which reads the documents.
+	 */
+	private final OrigamiReader reader;
+	/**
+	 * The number of worker threads.
+	 */
+	private final int threadCount;
+	public BatchCleaner(Path inputDirectory, Path outputDirectory, String extension, OrigamiReader reader, int threadCount,
+			boolean force) {
+		this.inputDirectory = inputDirectory;
+		this.outputDirectory = outputDirectory;
+		this.extension = extension;
+		this.reader = reader;
+		this.threadCount = threadCount;
+		this.force = force;
+		previousHashes = new TreeMap<String, String>();
+		cleaners = new ThreadLocal<OrigamiCleaner>() {
+			@Override
+			protected final OrigamiCleaner initialValue() {
+				return new OrigamiCleaner();
+			}
+		};
+	}
+	/**
+	 * Cleans the document at the passed path, and returns the outcome. Exceptions are part of the outcome rather than thrown.
+	 */
+	private final FileResult clean(Path inputPath) {
+		final String relativePath = inputDirectory.relativize(inputPath).toString()
+				.replace(inputPath.getFileSystem().getSeparator(), "/");
+		final long startTime = System.nanoTime();
+		String inputHash = null;
+		long byteCount = 0;
+		try {
+			final byte[] input = Files.readAllBytes(inputPath);
+			byteCount = input.length;
+			inputHash = hash(input);
+			final Path outputPath = outputDirectory.resolve(relativePath);
+			// Skip the document if its input has not changed since it was last cleaned.
+			if (false == force && inputHash.equals(previousHashes.get(relativePath)) && Files.exists(outputPath)) {
+				return new FileResult(relativePath, inputHash, byteCount, 0, System.nanoTime() - startTime, true, null);
+			}
+			final OrigamiCleaner cleaner = cleaners.get();
+			cleaner.reset();
+			final String output = (String) reader.read(ByteBuffer.wrap(input), cleaner);
+			writeAtomically(outputPath, output.getBytes(UTF_8));
+			return new FileResult(relativePath, inputHash, byteCount, cleaner.getRemovedInstructionCount(),
+					System.nanoTime() - startTime, false, null);
+		} catch (IOException exception) {
+			return new FileResult(relativePath, inputHash, byteCount, 0, System.nanoTime() - startTime, false, exception);
+		} catch (OrigamiDocumentFormatException exception) {
+			return new FileResult(relativePath, inputHash, byteCount, 0, System.nanoTime() - startTime, false, exception);
+		} catch (RuntimeException exception) {
+			return new FileResult(relativePath, inputHash, byteCount, 0, System.nanoTime() - startTime, false, exception);
+		}
+	}
+	/**
+	 * Returns the paths of the documents in the input directory, in a stable order.
+	 */
+	private final List<Path> findDocuments() throws IOException {
+		final List<Path> result = new ArrayList<Path>();
+		Files.walkFileTree(inputDirectory, new SimpleFileVisitor<Path>() {
+			@Override
+			public final FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile() && file.getFileName().toString().endsWith(extension)) {
+					result.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		Collections.sort(result);
+		return result;
+	}
+	/**
+	 * Returns the SHA-256 hash of the passed bytes, in hexadecimal.
+	 */
+	private static final String hash(byte[] bytes) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		// Every implementation of the Java platform is required to support SHA-256.
+		} catch (NoSuchAlgorithmException exception) {
+			throw new RuntimeException(exception);
+		}
+		final StringBuilder result = new StringBuilder(64);
+		for (final byte hashByte : digest.digest(bytes)) {
+			result.append(Character.forDigit((hashByte >>> 4) & 0xF, 0x10))
+					.append(Character.forDigit(hashByte & 0xF, 0x10));
+		}
+		return result.toString();
+	}
+	public static final void main(String[] arguments) throws IOException, InterruptedException {
+		// Parse the arguments.
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		String extension = ".xml";
+		boolean reference = false;
+		boolean force = false;
+		final List<String> directories = new ArrayList<String>(2);
+		try {
+			for (int index = 0; arguments.length != index; index++) {
+				if ("--threads".equals(arguments[index])) {
+					if ((threadCount = Integer.parseInt(arguments[++index])) < 1) {
+						throw new IllegalArgumentException("The thread count must be positive");
+					}
+				} else if ("--extension".equals(arguments[index])) {
+					extension = arguments[++index];
+				} else if ("--reference".equals(arguments[index])) {
+					reference = true;
+				} else if ("--force".equals(arguments[index])) {
+					force = true;
+				} else if (arguments[index].startsWith("--")) {
+					throw new IllegalArgumentException("Unexpected option: " + arguments[index]);
+				} else {
+					directories.add(arguments[index]);
+				}
+			}
+			if (2 != directories.size()) {
+				throw new IllegalArgumentException("An input and an output directory are expected");
+			}
+		} catch (ArrayIndexOutOfBoundsException exception) {
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		} catch (IllegalArgumentException exception) {
+			System.err.println(exception.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		final Path inputDirectory = Paths.get(directories.get(0));
+		if (false == Files.isDirectory(inputDirectory)) {
+			System.err.println("Not a directory: " + inputDirectory);
+			System.exit(2);
+			return;
+		}
+		// Clean the documents.
+		System.exit(new BatchCleaner(inputDirectory, Paths.get(directories.get(1)), extension,
+				reference ? new DesktopOrigamiReader() : new ScanningOrigamiReader(), threadCount, force)
+				.run());
+	}
+	/**
+	 * Prints the statistics of the passed results, which took the passed time in nanoseconds.
+	 */
+	private static final void printStatistics(List<FileResult> results, long elapsedTime) {
+		int cleanedCount = 0;
+		int skippedCount = 0;
+		int failedCount = 0;
+		long byteCount = 0;
+		long removedInstructionCount = 0;
+		final List<FileResult> cleanedResults = new ArrayList<FileResult>(results.size());
+		for (final FileResult result : results) {
+			if (null != result.failure) {
+				failedCount++;
+			} else if (result.skipped) {
+				skippedCount++;
+			} else {
+				cleanedCount++;
+				byteCount += result.byteCount;
+				removedInstructionCount += result.removedInstructionCount;
+				cleanedResults.add(result);
+			}
+		}
+		final double seconds = Math.max(elapsedTime, 1) / 1e9;
+		System.out.println(String.format("Cleaned %d, skipped %d, failed %d documents in %.3f s", cleanedCount, skippedCount,
+				failedCount, seconds));
+		System.out.println(String.format("%.1f files/s, %.2f MB/s, %d instructions removed", cleanedCount / seconds,
+				byteCount / seconds / (1 << 20), removedInstructionCount));
+		// Print the slowest documents.
+		Collections.sort(cleanedResults, new Comparator<FileResult>() {
+			@Override
+			public final int compare(FileResult first, FileResult second) {
+				return Long.compare(second.time, first.time);
+			}
+		});
+		if (false == cleanedResults.isEmpty()) {
+			System.out.println("Slowest documents:");
+			for (final FileResult result : cleanedResults.subList(0, Math.min(SLOWEST_FILE_COUNT, cleanedResults.size()))) {
+				System.out.println(String.format("  %8.3f ms  %s", result.time / 1e6, result.relativePath));
+			}
+		}
+	}
+	/**
+	 * Reads the manifest in the output directory, if it exists.
+	 */
+	private final void readManifest() throws IOException {
+		final Path manifestPath = outputDirectory.resolve(MANIFEST_NAME);
+		if (false == Files.exists(manifestPath)) {
+			return;
+		}
+		for (final String line : Files.readAllLines(manifestPath, UTF_8)) {
+			final int separatorIndex = line.indexOf('\t');
+			if (-1 != separatorIndex) {
+				previousHashes.put(line.substring(separatorIndex + 1), line.substring(0, separatorIndex));
+			}
+		}
+	}
+	/**
+	 * Cleans the documents, prints the statistics, and returns the exit code.
+	 */
+	public final int run() throws IOException, InterruptedException {
+		Files.createDirectories(outputDirectory);
+		readManifest();
+		final long startTime = System.nanoTime();
+		// Clean the documents on the worker threads.
+		final List<Path> inputPaths = findDocuments();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final List<FileResult> results = new ArrayList<FileResult>(inputPaths.size());
+		try {
+			final List<Future<FileResult>> futures = new ArrayList<Future<FileResult>>(inputPaths.size());
+			for (final Path inputPath : inputPaths) {
+				futures.add(executor.submit(new Callable<FileResult>() {
+					@Override
+					public final FileResult call() {
+						return clean(inputPath);
+					}
+				}));
+			}
+			for (final Future<FileResult> future : futures) {
+				try {
+					results.add(future.get());
+				// Cleaning returns exceptions as part of the outcome. Anything else is unexpected.
+				} catch (ExecutionException exception) {
+					throw new RuntimeException(exception.getCause());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		final long elapsedTime = System.nanoTime() - startTime;
+		// Report the failures, and update the manifest. Failed documents are left out, so they are retried next time.
+		final Map<String, String> hashes = new TreeMap<String, String>();
+		boolean failed = false;
+		for (final FileResult result : results) {
+			if (null == result.failure) {
+				hashes.put(result.relativePath, result.inputHash);
+			} else {
+				System.err.println(result.relativePath + ": " + result.failure);
+				failed = true;
+			}
+		}
+		writeManifest(hashes);
+		printStatistics(results, elapsedTime);
+		return failed ? 1 : 0;
+	}
+	/**
+	 * Writes the passed bytes to the passed path, by writing them to a temporary file in the same directory first and then
+	 * moving that file into place. The move is atomic if the file system supports it.
+	 */
+	private static final void writeAtomically(Path path, byte[] bytes) throws IOException {
+		final Path directory = path.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		// Create the temporary file with the default permissions. (Files.createTempFile would make it readable by the owner
+		// only, and the move would keep that.)
+		Path temporaryPath;
+		OutputStream outputStream;
+		while (true) {
+			temporaryPath = directory.resolve("." + path.getFileName() + "." +
+					Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+			try {
+				outputStream = Files.newOutputStream(temporaryPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+				break;
+			} catch (FileAlreadyExistsException exception) {
+				// Try another name.
+			}
+		}
+		try {
+			try {
+				outputStream.write(bytes);
+			} finally {
+				outputStream.close();
+			}
+			// If the file is replaced, keep the permissions it had.
+			if (Files.exists(path) &&
+					Files.getFileStore(temporaryPath).supportsFileAttributeView(PosixFileAttributeView.class)) {
+				Files.setPosixFilePermissions(temporaryPath, Files.getPosixFilePermissions(path));
+			}
+			try {
+				Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException exception) {
+				Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryPath);
+		}
+	}
+	/**
+	 * Writes the manifest, which holds the passed hashes where the key is the relative path.
+	 */
+	private final void writeManifest(Map<String, String> hashes) throws IOException {
+		final StringBuilder manifestBuilder = new StringBuilder(hashes.size() * 96);
+		for (final Map.Entry<String, String> entry : hashes.entrySet()) {
+			manifestBuilder.append(entry.getValue())
+					.append('\t')
+					.append(entry.getKey())
+					.append('\n');
+		}
+		writeAtomically(outputDirectory.resolve(MANIFEST_NAME), manifestBuilder.toString().getBytes(UTF_8));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package org.ilumbo.origami.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the garbage collection profiler, which reports the allocation rate (and the number of bytes
+ * allocated per operation) next to the throughput. The arguments are passed to JMH, so they can be used to select benchmarks
+ * or change parameters. For instance, "OrigamiBenchmark.parseOnly -p reader=scanning".
+ */
+public final class BenchmarkRunner {
+	private BenchmarkRunner() {
+	}
+	public static final void main(String[] arguments) throws CommandLineOptionException, RunnerException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(arguments))
+				.addProfiler(GCProfiler.class)
+				.build())
+				.run();
+	}
+}
\ No newline at end of file
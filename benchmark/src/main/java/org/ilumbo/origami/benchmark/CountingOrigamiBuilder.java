@@ -0,0 +1,52 @@
+package org.ilumbo.origami.benchmark;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds nothing but a checksum of the instructions it receives. Used to measure the cost of parsing a document by itself: the
+ * checksum prevents the virtual machine from optimising the parsing away, while adding next to no work of its own.
+ */
+public final class CountingOrigamiBuilder implements OrigamiBuilder<Long> {
+	private final class CountingFrameBuilder implements FrameBuilder {
+		private final class CountingPolygonBuilder implements PolygonBuilder {
+			@Override
+			public final void addClose() {
+				checksum = checksum * 31 + 1;
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				checksum = checksum * 31 + ((exactX << 12) | exactY);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				checksum = checksum * 31 - ((exactX << 12) | exactY);
+			}
+			@Override
+			public final void build() {
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				checksum = checksum * 31 + ((lightness << 8) | alpha);
+			}
+		}
+		@Override
+		public final void build() {
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return this.new CountingPolygonBuilder();
+		}
+	}
+	/**
+	 * The checksum of the instructions received so far.
+	 */
+	private long checksum;
+	@Override
+	public final Long build() {
+		return checksum;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		return this.new CountingFrameBuilder();
+	}
+}
\ No newline at end of file
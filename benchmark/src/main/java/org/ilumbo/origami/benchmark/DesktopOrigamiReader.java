@@ -0,0 +1,41 @@
+package org.ilumbo.origami.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.reading.OrigamiReader;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Reads origami documents exactly like its superclass, on a desktop virtual machine. The superclass passes "UTF_8" as the
+ * encoding to the XML pull parser, which the parser on Android accepts but the Java platform does not recognise. This reader
+ * passes "UTF-8" instead.
+ */
+public class DesktopOrigamiReader extends OrigamiReader {
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object read(InputStream inputStream, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		// Create the parser.
+		final XmlPullParser parser = createXmlPullParser();
+		try {
+			// Inject the input stream into the parser.
+			parser.setInput(inputStream, "UTF-8");
+			// Read the very first element start tag.
+			do {
+				parser.next();
+			} while (XmlPullParser.START_DOCUMENT == parser.getEventType());
+			// Read the document.
+			readDocument(parser, builder);
+		} catch (XmlPullParserException exception) {
+			throw new OrigamiDocumentFormatException(exception);
+		}
+		// Close the input stream.
+		inputStream.close();
+		// Return the resulting data structure.
+		return builder.build();
+	}
+}
\ No newline at end of file
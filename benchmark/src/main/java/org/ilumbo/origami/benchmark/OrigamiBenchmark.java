@@ -0,0 +1,129 @@
+package org.ilumbo.origami.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.ilumbo.origami.cleaning.OrigamiCleaner;
+import org.ilumbo.origami.drawing.EconomicOrigamiDrawerBuilder;
+import org.ilumbo.origami.drawing.FrameDrawer;
+import org.ilumbo.origami.drawing.LevelOfDetailOrigamiDrawerBuilder;
+import org.ilumbo.origami.drawing.OrigamiDrawerBuilder;
+import org.ilumbo.origami.reading.MulticastOrigamiBuilder;
+import org.ilumbo.origami.reading.OrigamiReader;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+import org.ilumbo.origami.reading.ScanningOrigamiReader;
+import org.ilumbo.origami.tessellating.OrigamiTessellator;
+import org.ilumbo.origami.tessellating.TessellatedOrigami;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a generated origami document into the builders of the library. Every benchmark reads the whole document,
+ * from a heap buffer which is created once. The reference reader (the XML pull parser) and the scanning reader are both
+ * measured, as are documents of a few sizes.
+ *
+ * Run through {@link BenchmarkRunner}, which adds the garbage collection profiler so the allocation rate is reported next to
+ * the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+public class OrigamiBenchmark {
+	/**
+	 * The number of frames in the document.
+	 */
+	@Param({"8"})
+	public int frameCount;
+	/**
+	 * The number of polygons in every frame.
+	 */
+	@Param({"20", "200"})
+	public int polygonCount;
+	/**
+	 * The reader used: "reference" or "scanning".
+	 */
+	@Param({"reference", "scanning"})
+	public String reader;
+	/**
+	 * The chance that a redundant instruction follows any vertex.
+	 */
+	@Param({"0.1"})
+	public float redundancy;
+	/**
+	 * The number of vertices in every polygon.
+	 */
+	@Param({"12"})
+	public int vertexCount;
+	/**
+	 * The buffer which contains the document.
+	 */
+	private ByteBuffer documentBuffer;
+	/**
+	 * The reader which reads the document.
+	 */
+	private OrigamiReader origamiReader;
+	/**
+	 * The cleaner which is reset and re-used by every invocation of the recycling benchmark.
+	 */
+	private OrigamiCleaner recycledCleaner;
+	@Benchmark
+	public FrameDrawer[] parseAndBuildDrawers() throws OrigamiDocumentFormatException, IOException {
+		return (FrameDrawer[]) origamiReader.read(documentBuffer, new OrigamiDrawerBuilder());
+	}
+	@Benchmark
+	public FrameDrawer[] parseAndBuildEconomicDrawers() throws OrigamiDocumentFormatException, IOException {
+		return (FrameDrawer[]) origamiReader.read(documentBuffer, new EconomicOrigamiDrawerBuilder());
+	}
+	@Benchmark
+	public FrameDrawer[] parseAndBuildLevelOfDetailDrawers() throws OrigamiDocumentFormatException, IOException {
+		return (FrameDrawer[]) origamiReader.read(documentBuffer, new LevelOfDetailOrigamiDrawerBuilder());
+	}
+	@Benchmark
+	public String parseAndClean() throws OrigamiDocumentFormatException, IOException {
+		return (String) origamiReader.read(documentBuffer, new OrigamiCleaner());
+	}
+	@Benchmark
+	public Object[] parseAndCleanAndBuildDrawers() throws OrigamiDocumentFormatException, IOException {
+		return (Object[]) origamiReader.read(documentBuffer,
+				new MulticastOrigamiBuilder(new OrigamiCleaner(), new OrigamiDrawerBuilder()));
+	}
+	@Benchmark
+	public String parseAndCleanRecycled() throws OrigamiDocumentFormatException, IOException {
+		recycledCleaner.reset();
+		return (String) origamiReader.read(documentBuffer, recycledCleaner);
+	}
+	@Benchmark
+	public TessellatedOrigami parseAndTessellate() throws OrigamiDocumentFormatException, IOException {
+		return (TessellatedOrigami) origamiReader.read(documentBuffer, new OrigamiTessellator());
+	}
+	@Benchmark
+	public Long parseOnly() throws OrigamiDocumentFormatException, IOException {
+		return (Long) origamiReader.read(documentBuffer, new CountingOrigamiBuilder());
+	}
+	@Setup
+	public void setUp() {
+		documentBuffer = ByteBuffer.wrap(new OrigamiDocumentGenerator(0x0816)
+				.generate(frameCount, polygonCount, vertexCount, redundancy));
+		recycledCleaner = new OrigamiCleaner();
+		if ("reference".equals(reader)) {
+			origamiReader = new DesktopOrigamiReader();
+		} else if ("scanning".equals(reader)) {
+			origamiReader = new ScanningOrigamiReader();
+		} else {
+			throw new IllegalArgumentException("Unexpected reader: " + reader);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package org.ilumbo.origami.benchmark;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates synthetic origami documents in the XML format. The documents are determined entirely by the seed and the passed
+ * counts, so every run of a benchmark reads the exact same bytes.
+ *
+ * Every polygon is a star-shaped ring around a random centre, which resembles the polygons found in real documents more than
+ * random points would. A configurable share of the instructions is redundant: a "line" or "move" to the current point, or a
+ * "line" back to the start point of the sub-path (which a cleaner turns into a "close" instruction). Such instructions are what
+ * the cleaner strips out.
+ */
+public final class OrigamiDocumentGenerator {
+	/**
+	 * The digits used to write hexadecimal integers.
+	 */
+	private static final char[] HEXADECIMAL_DIGITS = "0123456789abcdef".toCharArray();
+	/**
+	 * The largest exact coordinate.
+	 */
+	private static final int MAXIMUM_EXACT_COORDINATE = 0x800;
+	/**
+	 * The seed of the random number generator.
+	 */
+	private final long seed;
+	/**
+	 * Creates a generator which generates documents based on the passed seed.
+	 */
+	public OrigamiDocumentGenerator(long seed) {
+		this.seed = seed;
+	}
+	/**
+	 * Appends the passed value in hexadecimal to the passed string builder, prepending zeroes to the passed number of digits.
+	 */
+	private static final void appendHexadecimal(StringBuilder documentBuilder, int value, int digitCount) {
+		for (int index = digitCount - 1; -1 != index; index--) {
+			documentBuilder.append(HEXADECIMAL_DIGITS[(value >>> (index << 2)) & 0xF]);
+		}
+	}
+	/**
+	 * Appends a "move" or "line" instruction element with the passed name and coordinates to the passed string builder.
+	 */
+	private static final void appendInstruction(StringBuilder documentBuilder, String name, int exactX, int exactY) {
+		documentBuilder.append('<')
+				.append(name)
+				.append('>');
+		appendHexadecimal(documentBuilder, (exactX << 12) | exactY, 6);
+		documentBuilder.append("</")
+				.append(name)
+				.append('>');
+	}
+	/**
+	 * Generates a document with the passed number of frames, each of which has the passed number of polygons, each of which has
+	 * the passed number of vertices. The passed redundancy (between zero and one) is the chance that a redundant instruction is
+	 * added after any vertex. The document is returned as UTF-8 (which, as the document is pure ASCII, equals US-ASCII).
+	 */
+	public final byte[] generate(int frameCount, int polygonCount, int vertexCount, float redundancy) {
+		if (frameCount < 0 || polygonCount < 0 || vertexCount < 3) {
+			throw new IllegalArgumentException("The counts must not be negative, and a polygon has at least three vertices");
+		}
+		if (false == (redundancy >= 0 && redundancy <= 1)) {
+			throw new IllegalArgumentException("The redundancy must be between zero and one");
+		}
+		final Random random = new Random(seed);
+		final StringBuilder documentBuilder = new StringBuilder(frameCount * polygonCount * (vertexCount * 20 + 40) + 32);
+		final double[] angles = new double[vertexCount];
+		documentBuilder.append("<origami>\n");
+		for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+			documentBuilder.append("\t<frame>");
+			for (int polygonIndex = 0; polygonCount != polygonIndex; polygonIndex++) {
+				// Most polygons are opaque, as they are in real documents.
+				documentBuilder.append("<polygon fill=\"");
+				appendHexadecimal(documentBuilder, random.nextInt(0x100), 2);
+				appendHexadecimal(documentBuilder, random.nextInt(4) == 0 ? random.nextInt(0x100) : 0xFF, 2);
+				documentBuilder.append("\">");
+				// Determine the centre and size of the polygon, and the angles of the vertices around that centre.
+				final int radius = 16 + random.nextInt(MAXIMUM_EXACT_COORDINATE >> 3);
+				final int centreX = radius + random.nextInt(MAXIMUM_EXACT_COORDINATE - (radius << 1) + 1);
+				final int centreY = radius + random.nextInt(MAXIMUM_EXACT_COORDINATE - (radius << 1) + 1);
+				for (int index = 0; vertexCount != index; index++) {
+					angles[index] = random.nextDouble() * Math.PI * 2;
+				}
+				Arrays.sort(angles);
+				// Add the vertices.
+				int startX = 0;
+				int startY = 0;
+				for (int index = 0; vertexCount != index; index++) {
+					final double distance = radius * (0.5 + random.nextDouble() * 0.5);
+					final int exactX = centreX + (int) Math.round(Math.cos(angles[index]) * distance);
+					final int exactY = centreY + (int) Math.round(Math.sin(angles[index]) * distance);
+					if (0 == index) {
+						appendInstruction(documentBuilder, "move", startX = exactX, startY = exactY);
+					} else {
+						appendInstruction(documentBuilder, "line", exactX, exactY);
+					}
+					// Add a redundant instruction, which the cleaner strips out.
+					if (random.nextFloat() < redundancy) {
+						switch (random.nextInt(3)) {
+						case 0:
+							appendInstruction(documentBuilder, "line", exactX, exactY);
+							break;
+						case 1:
+							appendInstruction(documentBuilder, "move", exactX, exactY);
+							break;
+						default:
+							// A "line" back to the start point only has no effect after the last vertex, where it takes the place of
+							// the implicit "close" instruction. Elsewhere, repeat the "line" instead.
+							if (vertexCount - 1 == index) {
+								appendInstruction(documentBuilder, "line", startX, startY);
+							} else {
+								appendInstruction(documentBuilder, "line", exactX, exactY);
+							}
+							break;
+						}
+					}
+				}
+				documentBuilder.append("</polygon>");
+			}
+			documentBuilder.append("</frame>\n");
+		}
+		documentBuilder.append("</origami>");
+		try {
+			return documentBuilder.toString()
+					.getBytes("UTF-8");
+		// Every implementation of the Java platform is required to support UTF-8.
+		} catch (UnsupportedEncodingException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+}
\ No newline at end of file
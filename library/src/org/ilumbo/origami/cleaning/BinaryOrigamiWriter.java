@@ -0,0 +1,184 @@
+package org.ilumbo.origami.cleaning;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.ilumbo.origami.reading.BinaryOrigamiReader;
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds an origami document in the binary format, which is described in {@link BinaryOrigamiReader}. Reading an XML origami
+ * document into this builder converts it losslessly.
+ */
+public final class BinaryOrigamiWriter implements OrigamiBuilder<byte[]> {
+	private static final class FrameWriter implements FrameBuilder {
+		private static final class PolygonWriter implements PolygonBuilder {
+			/**
+			 * The alpha of the fill.
+			 */
+			private int alpha;
+			/**
+			 * The coordinates of the "move" and "line" instructions, 3 bytes each.
+			 */
+			private byte[] coordinates;
+			/**
+			 * The number of bytes in the array above which are in use.
+			 */
+			private int coordinatesLength;
+			/**
+			 * The output stream which will contain the frame.
+			 */
+			private final ByteArrayOutputStream frameOutputStream;
+			/**
+			 * The number of instructions which have been added.
+			 */
+			private int instructionCount;
+			/**
+			 * The instruction types, four to a byte.
+			 */
+			private byte[] instructionTypes;
+			/**
+			 * The lightness of the fill.
+			 */
+			private int lightness;
+			public PolygonWriter(ByteArrayOutputStream frameOutputStream) {
+				this.frameOutputStream = frameOutputStream;
+				coordinates = new byte[24];
+				instructionTypes = new byte[2];
+			}
+			@Override
+			public final void addClose() {
+				addInstructionType(BinaryOrigamiReader.INSTRUCTION_TYPE_CLOSE);
+			}
+			/**
+			 * Adds the coordinates of a "move" or "line" instruction.
+			 */
+			private final void addCoordinates(int exactX, int exactY) {
+				// Reject the coordinates the reader would reject, so every document written can be read back.
+				if (exactX < 0 || exactY < 0 || exactX > 0x800 || exactY > 0x800) {
+					throw new IllegalArgumentException("Exact coordinates must be between 0 and 0x800");
+				}
+				if (coordinates.length == coordinatesLength) {
+					final byte[] largerCoordinates = new byte[coordinatesLength << 1];
+					System.arraycopy(coordinates, 0, largerCoordinates, 0, coordinatesLength);
+					coordinates = largerCoordinates;
+				}
+				final int joinedCoordinates = (exactX << 12) | (exactY << 0);
+				coordinates[coordinatesLength++] = (byte) (joinedCoordinates >>> 16);
+				coordinates[coordinatesLength++] = (byte) (joinedCoordinates >>> 8);
+				coordinates[coordinatesLength++] = (byte) (joinedCoordinates >>> 0);
+			}
+			/**
+			 * Adds the type of an instruction.
+			 */
+			private final void addInstructionType(int instructionType) {
+				if (0xFFFF == instructionCount) {
+					throw new IllegalStateException("A polygon cannot contain more than 65535 instructions");
+				}
+				if (instructionTypes.length << 2 == instructionCount) {
+					final byte[] largerInstructionTypes = new byte[instructionTypes.length << 1];
+					System.arraycopy(instructionTypes, 0, largerInstructionTypes, 0, instructionTypes.length);
+					instructionTypes = largerInstructionTypes;
+				}
+				instructionTypes[instructionCount >>> 2] |= instructionType << ((instructionCount & 3) << 1);
+				instructionCount++;
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				addInstructionType(BinaryOrigamiReader.INSTRUCTION_TYPE_LINE);
+				addCoordinates(exactX, exactY);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				addInstructionType(BinaryOrigamiReader.INSTRUCTION_TYPE_MOVE);
+				addCoordinates(exactX, exactY);
+			}
+			@Override
+			public final void build() {
+				// If the last instruction is a "close" one, remove it. A polygon implicitly ends with a "close" instruction.
+				if (0 != instructionCount &&
+						BinaryOrigamiReader.INSTRUCTION_TYPE_CLOSE ==
+						((instructionTypes[(instructionCount - 1) >>> 2] >>> (((instructionCount - 1) & 3) << 1)) & 3)) {
+					instructionTypes[(instructionCount - 1) >>> 2] &= ~(3 << (((instructionCount - 1) & 3) << 1));
+					instructionCount--;
+				}
+				frameOutputStream.write(lightness);
+				frameOutputStream.write(alpha);
+				frameOutputStream.write(instructionCount >>> 8);
+				frameOutputStream.write(instructionCount >>> 0);
+				frameOutputStream.write(instructionTypes, 0, (instructionCount + 3) >>> 2);
+				frameOutputStream.write(coordinates, 0, coordinatesLength);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				this.lightness = lightness;
+				this.alpha = alpha;
+			}
+		}
+		/**
+		 * The output stream which will contain the document.
+		 */
+		private final ByteArrayOutputStream documentOutputStream;
+		/**
+		 * The output stream which will contain the polygons of this frame.
+		 */
+		private final ByteArrayOutputStream frameOutputStream;
+		/**
+		 * The number of polygons in this frame.
+		 */
+		private int polygonCount;
+		public FrameWriter(ByteArrayOutputStream documentOutputStream) {
+			this.documentOutputStream = documentOutputStream;
+			frameOutputStream = new ByteArrayOutputStream(256);
+		}
+		@Override
+		public final void build() {
+			documentOutputStream.write(polygonCount >>> 8);
+			documentOutputStream.write(polygonCount >>> 0);
+			try {
+				frameOutputStream.writeTo(documentOutputStream);
+			// Byte array output streams do not throw I/O exceptions.
+			} catch (IOException exception) {
+				throw new RuntimeException(exception);
+			}
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			if (0xFFFF == polygonCount) {
+				throw new IllegalStateException("A frame cannot contain more than 65535 polygons");
+			}
+			polygonCount++;
+			return new PolygonWriter(frameOutputStream);
+		}
+	}
+	/**
+	 * The output stream which will contain the frames of the binary origami document.
+	 */
+	private final ByteArrayOutputStream documentOutputStream;
+	/**
+	 * The number of frames in the document.
+	 */
+	private int frameCount;
+	public BinaryOrigamiWriter() {
+		documentOutputStream = new ByteArrayOutputStream(1024);
+	}
+	@Override
+	public final byte[] build() {
+		final byte[] frames = documentOutputStream.toByteArray();
+		final byte[] result = new byte[BinaryOrigamiReader.MAGIC.length + 3 + frames.length];
+		System.arraycopy(BinaryOrigamiReader.MAGIC, 0, result, 0, BinaryOrigamiReader.MAGIC.length);
+		result[BinaryOrigamiReader.MAGIC.length] = BinaryOrigamiReader.VERSION;
+		result[BinaryOrigamiReader.MAGIC.length + 1] = (byte) (frameCount >>> 8);
+		result[BinaryOrigamiReader.MAGIC.length + 2] = (byte) (frameCount >>> 0);
+		System.arraycopy(frames, 0, result, BinaryOrigamiReader.MAGIC.length + 3, frames.length);
+		return result;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		if (0xFFFF == frameCount) {
+			throw new IllegalStateException("A document cannot contain more than 65535 frames");
+		}
+		frameCount++;
+		return new FrameWriter(documentOutputStream);
+	}
+}
\ No newline at end of file
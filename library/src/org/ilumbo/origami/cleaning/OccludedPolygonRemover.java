@@ -0,0 +1,280 @@
+package org.ilumbo.origami.cleaning;
+
+import java.util.Arrays;
+
+import org.ilumbo.origami.geometry.PolygonEdges;
+import org.ilumbo.origami.packing.OrigamiPacker;
+import org.ilumbo.origami.packing.PackedOrigami;
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Removes the polygons which are hidden by later opaque polygons in the same frame, and passes the rest of the document on to
+ * another builder (the target). The target could be a cleaner, in which case the hidden polygons are removed from the
+ * document, or a drawer builder, in which case they are never drawn.
+ *
+ * The test is conservative. Every frame is divided into a grid of cells. Walking the polygons from the last one to the first
+ * one, a cell is marked as covered once it lies entirely inside a polygon with full alpha. A polygon is removed if every cell
+ * its bounding box touches has been marked as covered by that point. (Apart from anti-aliasing along the edges of the
+ * covering polygons, removing such a polygon does not change the drawn frame.)
+ *
+ * The polygons of a frame are buffered until the frame is built. Frames are expected to be built one after another, as the
+ * readers do.
+ */
+public final class OccludedPolygonRemover<Result> implements OrigamiBuilder<Result> {
+	private final class FrameRemover implements FrameBuilder {
+		/**
+		 * The packer which buffers the polygons of the frame.
+		 */
+		private final OrigamiPacker packer;
+		/**
+		 * The frame builder of the packer above.
+		 */
+		private final FrameBuilder packerFrameBuilder;
+		/**
+		 * The frame builder of the target.
+		 */
+		private final FrameBuilder targetFrameBuilder;
+		public FrameRemover(FrameBuilder targetFrameBuilder) {
+			this.targetFrameBuilder = targetFrameBuilder;
+			packerFrameBuilder = (packer = new OrigamiPacker())
+					.createFrameBuilder();
+		}
+		@Override
+		public final void build() {
+			packerFrameBuilder.build();
+			final PackedOrigami frame = packer.build();
+			// Walk the polygons from the last one to the first one, determining which ones are hidden.
+			final int polygonCount = frame.getPolygonCount(0);
+			final boolean[] hiddenPolygons = new boolean[polygonCount];
+			Arrays.fill(coveredCells, false);
+			for (int polygonIndex = polygonCount - 1; -1 != polygonIndex; polygonIndex--) {
+				polygonEdges.clear();
+				frame.replayPolygon(0, polygonIndex, polygonEdges);
+				polygonEdges.build();
+				if (isCovered()) {
+					hiddenPolygons[polygonIndex] = true;
+					removedPolygonCount++;
+				} else if (0xFF == (frame.getFill(0, polygonIndex) & 0xFF)) {
+					cover();
+				}
+			}
+			// Pass the polygons which are not hidden to the target.
+			for (int polygonIndex = 0; polygonCount != polygonIndex; polygonIndex++) {
+				if (false == hiddenPolygons[polygonIndex]) {
+					final PolygonBuilder polygonBuilder = targetFrameBuilder.createPolygonBuilder();
+					frame.replayPolygon(0, polygonIndex, polygonBuilder);
+					polygonBuilder.build();
+				}
+			}
+			targetFrameBuilder.build();
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return packerFrameBuilder.createPolygonBuilder();
+		}
+	}
+	/**
+	 * The size of a cell, in exact units.
+	 */
+	private static final int CELL_SIZE = 16;
+	/**
+	 * The number of cells in a row or column of the grid.
+	 */
+	private static final int GRID_SIZE = 0x800 / CELL_SIZE;
+	/**
+	 * A small margin, used to ensure rounding errors cause cells to be considered touched by an edge rather than not.
+	 */
+	private static final double MARGIN = 1e-6;
+	/**
+	 * For every cell, whether it is covered by the polygons which have been walked so far.
+	 */
+	private final boolean[] coveredCells;
+	/**
+	 * For every crossing in the array below, +1 if the edge goes down or -1 if it goes up.
+	 */
+	private int[] crossingDirections;
+	/**
+	 * The x coordinates at which the edges of the current polygon cross the horizontal line through the centres of a row of
+	 * cells.
+	 */
+	private double[] crossingXs;
+	/**
+	 * The edges of the current polygon.
+	 */
+	private final PolygonEdges polygonEdges;
+	/**
+	 * The number of polygons removed so far.
+	 */
+	private int removedPolygonCount;
+	/**
+	 * The builder to which the document is passed.
+	 */
+	private final OrigamiBuilder<Result> target;
+	/**
+	 * The number of the current polygon, used to mark cells as touched without having to clear the array below.
+	 */
+	private int touchStamp;
+	/**
+	 * For every cell, the number of the polygon an edge of which touched it most recently.
+	 */
+	private final int[] touchStamps;
+	/**
+	 * Creates a remover which passes the document without the hidden polygons to the passed target.
+	 */
+	public OccludedPolygonRemover(OrigamiBuilder<Result> target) {
+		this.target = target;
+		coveredCells = new boolean[GRID_SIZE * GRID_SIZE];
+		touchStamps = new int[GRID_SIZE * GRID_SIZE];
+		crossingDirections = new int[16];
+		crossingXs = new double[16];
+		polygonEdges = new PolygonEdges();
+	}
+	@Override
+	public final Result build() {
+		return target.build();
+	}
+	/**
+	 * Marks the cells which lie entirely inside the current polygon as covered.
+	 */
+	private final void cover() {
+		final int edgeCount = polygonEdges.getEdgeCount();
+		if (0 == edgeCount) {
+			return;
+		}
+		// Mark the cells touched by the edges. These cells might lie partially outside the polygon.
+		touchStamp++;
+		for (int edgeIndex = 0; edgeCount != edgeIndex; edgeIndex++) {
+			touchCells(polygonEdges.getStartX(edgeIndex), polygonEdges.getStartY(edgeIndex),
+					polygonEdges.getEndX(edgeIndex), polygonEdges.getEndY(edgeIndex));
+		}
+		// The cells which are not touched lie either entirely inside or entirely outside the polygon. Determine which using the
+		// non-zero rule at their centres, sweeping every row from left to right.
+		final int firstColumn = toFirstCell(polygonEdges.getMinimumX());
+		final int lastColumn = toLastCell(polygonEdges.getMaximumX());
+		final int lastRow = toLastCell(polygonEdges.getMaximumY());
+		for (int row = toFirstCell(polygonEdges.getMinimumY()); lastRow >= row; row++) {
+			final int centreY = row * CELL_SIZE + (CELL_SIZE >> 1);
+			final int crossingCount = findCrossings(centreY);
+			int crossingIndex = 0;
+			int winding = 0;
+			for (int column = firstColumn; lastColumn >= column; column++) {
+				final int centreX = column * CELL_SIZE + (CELL_SIZE >> 1);
+				while (crossingCount != crossingIndex && crossingXs[crossingIndex] < centreX) {
+					winding += crossingDirections[crossingIndex++];
+				}
+				final int cellIndex = row * GRID_SIZE + column;
+				if (0 != winding && touchStamp != touchStamps[cellIndex]) {
+					coveredCells[cellIndex] = true;
+				}
+			}
+		}
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		return this.new FrameRemover(target.createFrameBuilder());
+	}
+	/**
+	 * Finds the points where the edges of the current polygon cross the horizontal line at the passed y coordinate, sorts them
+	 * from left to right, and returns the number of them.
+	 */
+	private final int findCrossings(int y) {
+		final int edgeCount = polygonEdges.getEdgeCount();
+		int result = 0;
+		for (int edgeIndex = 0; edgeCount != edgeIndex; edgeIndex++) {
+			final int startY = polygonEdges.getStartY(edgeIndex);
+			final int endY = polygonEdges.getEndY(edgeIndex);
+			final int direction;
+			if (startY <= y && endY > y) {
+				direction = 1;
+			} else if (endY <= y && startY > y) {
+				direction = -1;
+			} else {
+				continue;
+			}
+			final int startX = polygonEdges.getStartX(edgeIndex);
+			final double x = startX + (double) (y - startY) * (polygonEdges.getEndX(edgeIndex) - startX) / (endY - startY);
+			if (crossingXs.length == result) {
+				crossingXs = Arrays.copyOf(crossingXs, result << 1);
+				crossingDirections = Arrays.copyOf(crossingDirections, result << 1);
+			}
+			// Insert the crossing, keeping the crossings sorted.
+			int index = result++;
+			while (0 != index && crossingXs[index - 1] > x) {
+				crossingXs[index] = crossingXs[index - 1];
+				crossingDirections[index] = crossingDirections[index - 1];
+				index--;
+			}
+			crossingXs[index] = x;
+			crossingDirections[index] = direction;
+		}
+		return result;
+	}
+	/**
+	 * Returns the number of polygons removed so far.
+	 */
+	public final int getRemovedPolygonCount() {
+		return removedPolygonCount;
+	}
+	/**
+	 * Returns whether every cell the bounding box of the current polygon touches is covered. Polygons without edges are never
+	 * considered covered.
+	 */
+	private final boolean isCovered() {
+		if (0 == polygonEdges.getEdgeCount()) {
+			return false;
+		}
+		final int firstColumn = toFirstCell(polygonEdges.getMinimumX());
+		final int lastColumn = Math.max(firstColumn, toLastCell(polygonEdges.getMaximumX()));
+		final int firstRow = toFirstCell(polygonEdges.getMinimumY());
+		final int lastRow = Math.max(firstRow, toLastCell(polygonEdges.getMaximumY()));
+		for (int row = firstRow; lastRow >= row; row++) {
+			for (int column = firstColumn; lastColumn >= column; column++) {
+				if (false == coveredCells[row * GRID_SIZE + column]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	/**
+	 * Returns the index of the first cell that touches the passed coordinate or anything beyond it.
+	 */
+	private static final int toFirstCell(int coordinate) {
+		return Math.min(GRID_SIZE - 1, coordinate / CELL_SIZE);
+	}
+	/**
+	 * Returns the index of the last cell that touches the passed coordinate or anything before it.
+	 */
+	private static final int toLastCell(int coordinate) {
+		return Math.max(0, Math.min(GRID_SIZE - 1, (coordinate + CELL_SIZE - 1) / CELL_SIZE - 1));
+	}
+	/**
+	 * Marks the cells touched by the edge between the passed points, including the ones it merely touches along their border.
+	 */
+	private final void touchCells(int startX, int startY, int endX, int endY) {
+		final int minimumY = Math.min(startY, endY);
+		final int maximumY = Math.max(startY, endY);
+		final int firstRow = Math.max(0, (minimumY + CELL_SIZE - 1) / CELL_SIZE - 1);
+		final int lastRow = Math.min(GRID_SIZE - 1, maximumY / CELL_SIZE);
+		for (int row = firstRow; lastRow >= row; row++) {
+			// Determine the part of the edge within the row, and the range of x coordinates it spans.
+			final double minimumX;
+			final double maximumX;
+			if (startY == endY) {
+				minimumX = Math.min(startX, endX);
+				maximumX = Math.max(startX, endX);
+			} else {
+				final double slope = (double) (endX - startX) / (endY - startY);
+				final double topX = startX + (Math.max(minimumY, row * CELL_SIZE) - startY) * slope;
+				final double bottomX = startX + (Math.min(maximumY, (row + 1) * CELL_SIZE) - startY) * slope;
+				minimumX = Math.min(topX, bottomX);
+				maximumX = Math.max(topX, bottomX);
+			}
+			final int firstColumn = Math.max(0, (int) Math.ceil(minimumX / CELL_SIZE - MARGIN) - 1);
+			final int lastColumn = Math.min(GRID_SIZE - 1, (int) Math.floor(maximumX / CELL_SIZE + MARGIN));
+			for (int column = firstColumn; lastColumn >= column; column++) {
+				touchStamps[row * GRID_SIZE + column] = touchStamp;
+			}
+		}
+	}
+}
\ No newline at end of file
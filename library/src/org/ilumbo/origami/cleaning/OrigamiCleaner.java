@@ -2,21 +2,31 @@ package org.ilumbo.origami.cleaning;
 
 import java.util.ArrayList;
 
-import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.instrumenting.CountingOrigamiBuilder;
+import org.ilumbo.origami.reading.RecyclableOrigamiBuilder;
 
 import android.graphics.Point;
 import android.util.Log;
 
 /**
  * Builds a cleaned origami document, one with all of the redundant instructions stripped out.
+ *
+ * Optionally, the geometry of the polygons is simplified as well, by a {@link PolygonSimplifier}.
+ *
+ * A cleaner can be reset and re-used for another document. It re-uses its frame and polygon builders (and their buffers),
+ * both within a document and across documents.
  */
-public final class OrigamiCleaner implements OrigamiBuilder<String> {
+public final class OrigamiCleaner implements CountingOrigamiBuilder<String>, RecyclableOrigamiBuilder<String> {
 	private static final class FrameCleaner implements FrameBuilder {
 		private static final class PolygonCleaner implements PolygonBuilder {
 			/**
 			 * The string builder which will contain the XML origami document.
 			 */
 			private final StringBuilder cleanDocumentBuilder;
+			/**
+			 * The cleaner this polygon cleaner is a part of.
+			 */
+			private final OrigamiCleaner cleaner;
 			/**
 			 * The point that is last "move"d or "line"d to.
 			 */
@@ -37,19 +47,25 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 			 * Whether the instruction element most recently added to the list above is a "close" one.
 			 */
 			private boolean lastInstructionElementIsClose;
-			public PolygonCleaner(StringBuilder cleanDocumentBuilder) {
-				(this.cleanDocumentBuilder = cleanDocumentBuilder)
-						.append("<polygon ");
+			/**
+			 * The number of instructions passed to this polygon cleaner.
+			 */
+			private int receivedInstructionCount;
+			/**
+			 * The simplifier which passes the instructions to this polygon cleaner, or null if the geometry is not simplified.
+			 */
+			private PolygonSimplifier simplifier;
+			public PolygonCleaner(OrigamiCleaner cleaner) {
+				cleanDocumentBuilder = (this.cleaner = cleaner).cleanDocumentBuilder;
 				instructionElements = new ArrayList<String>(4);
-				lastInstructionElementIsClose = false;
-				// Before any instructions are read, the current point which is the start point of the current sub-path is at
-				// the top-left.
-				currentPoint = new Point(0, 0);
-				currentSubPathStartPoint = new Point(0, 0);
+				currentPoint = new Point();
+				currentSubPathStartPoint = new Point();
 			}
 			@Override
 			public final void addClose() {
+				receivedInstructionCount++;
 				if (false == addLine(currentSubPathStartPoint.x, currentSubPathStartPoint.y)) {
+					cleaner.redundantInstructionCount++;
 					Log.v(OrigamiCleaner.class.getSimpleName(), "Redundant close instruction");
 				}
 			}
@@ -81,7 +97,9 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 			}
 			@Override
 			public final void addLine(float x, float y, int exactX, int exactY) {
+				receivedInstructionCount++;
 				if (false == addLine(exactX, exactY)) {
+					cleaner.redundantInstructionCount++;
 					Log.v(OrigamiCleaner.class.getSimpleName(), new StringBuilder(64)
 							.append("Redundant line instruction to ")
 							.append(x)
@@ -93,9 +111,11 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 			}
 			@Override
 			public final void addMove(float x, float y, int exactX, int exactY) {
+				receivedInstructionCount++;
 				// If the coordinates of the current point and those of the start point of the current sub-path equal the
 				// passed ones, there is no need to add an instruction as such an instruction would have no effect.
 				if (currentPoint.equals(exactX, exactY)) {
+					cleaner.redundantInstructionCount++;
 					Log.v(OrigamiCleaner.class.getSimpleName(), new StringBuilder(64)
 							.append("Redundant move instruction to ")
 							.append(x)
@@ -130,6 +150,13 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 					cleanDocumentBuilder.append(instructionElement);
 				}
 				cleanDocumentBuilder.append("</polygon>");
+				// Count the removed instructions. The instructions removed by the simplifier (if any) were never passed to this
+				// polygon cleaner. The "close" instruction every polygon implicitly ends with is not counted.
+				int instructionCount = receivedInstructionCount;
+				if (null != simplifier) {
+					instructionCount += simplifier.getRemovedInstructionCount();
+				}
+				cleaner.removedInstructionCount += Math.max(0, instructionCount - 1 - instructionElements.size());
 			}
 			/**
 			 * Returns a variant of the passed string that is (at least) three characters long, prepending zeroes if required.
@@ -154,6 +181,22 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 					return input;
 				}
 			}
+			/**
+			 * Prepares this polygon cleaner for the next polygon.
+			 */
+			public final void reset() {
+				cleanDocumentBuilder.append("<polygon ");
+				instructionElements.clear();
+				lastInstructionElementIsClose = false;
+				receivedInstructionCount = 0;
+				// Before any instructions are read, the current point which is the start point of the current sub-path is at
+				// the top-left.
+				currentPoint.set(0, 0);
+				currentSubPathStartPoint.set(0, 0);
+				if (null != simplifier) {
+					simplifier.reset();
+				}
+			}
 			@Override
 			public final void setFill(int lightness, int alpha) {
 				fillString = prependZeroesToTwo(Integer.toHexString(lightness)) +
@@ -161,29 +204,83 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 			}
 		}
 		/**
-		 * The string builder which will contain the XML origami document.
+		 * The cleaner this frame cleaner is a part of.
 		 */
-		private final StringBuilder cleanDocumentBuilder;
-		public FrameCleaner(StringBuilder cleanDocumentBuilder) {
-			(this.cleanDocumentBuilder = cleanDocumentBuilder)
-					.append("\t<frame>");
+		private final OrigamiCleaner cleaner;
+		/**
+		 * The polygon cleaner, which is re-used for every polygon.
+		 */
+		private final PolygonCleaner polygonCleaner;
+		public FrameCleaner(OrigamiCleaner cleaner) {
+			polygonCleaner = new PolygonCleaner(this.cleaner = cleaner);
+			// If the geometry is simplified, a simplifier is put in front of the polygon cleaner.
+			if (SIMPLIFICATION_DISABLED != cleaner.simplificationTolerance) {
+				polygonCleaner.simplifier = new PolygonSimplifier(polygonCleaner, cleaner.simplificationTolerance);
+			}
 		}
 		@Override
 		public final void build() {
-			cleanDocumentBuilder.append("</frame>\n");
+			cleaner.cleanDocumentBuilder.append("</frame>\n");
 		}
 		@Override
 		public final PolygonBuilder createPolygonBuilder() {
-			return new PolygonCleaner(cleanDocumentBuilder);
+			polygonCleaner.reset();
+			// If the geometry is not simplified, the polygon cleaner receives the instructions directly. Otherwise, the
+			// simplifier in front of it does.
+			if (null == polygonCleaner.simplifier) {
+				return polygonCleaner;
+			} else {
+				return polygonCleaner.simplifier;
+			}
 		}
 	}
+	/**
+	 * The value of the simplification tolerance that indicates the geometry is not simplified.
+	 */
+	private static final int SIMPLIFICATION_DISABLED = -1;
 	/**
 	 * The string builder which will contain the XML origami document.
 	 */
 	private final StringBuilder cleanDocumentBuilder;
+	/**
+	 * The frame cleaner, which is re-used for every frame.
+	 */
+	private final FrameCleaner frameCleaner;
+	/**
+	 * The number of instructions received so far which had no effect.
+	 */
+	private int redundantInstructionCount;
+	/**
+	 * The number of instructions removed so far.
+	 */
+	private int removedInstructionCount;
+	/**
+	 * The tolerance passed to the polygon simplifiers, in exact units. Equal to SIMPLIFICATION_DISABLED if the geometry is not
+	 * simplified.
+	 */
+	private final int simplificationTolerance;
+	/**
+	 * Creates a cleaner which strips out the redundant instructions, but does not simplify the geometry.
+	 */
 	public OrigamiCleaner() {
+		simplificationTolerance = SIMPLIFICATION_DISABLED;
+		(cleanDocumentBuilder = new StringBuilder(128))
+				.append("<origami>\n");
+		frameCleaner = new FrameCleaner(this);
+	}
+	/**
+	 * Creates a cleaner which strips out the redundant instructions, and simplifies the geometry using the passed tolerance in
+	 * exact units (0x800 being the width or height of the frame). A tolerance of zero means only the simplifications which do
+	 * not change the filled area are applied. See {@link PolygonSimplifier}.
+	 */
+	public OrigamiCleaner(int simplificationTolerance) {
+		if (simplificationTolerance < 0) {
+			throw new IllegalArgumentException("The simplification tolerance must not be negative");
+		}
+		this.simplificationTolerance = simplificationTolerance;
 		(cleanDocumentBuilder = new StringBuilder(128))
 				.append("<origami>\n");
+		frameCleaner = new FrameCleaner(this);
 	}
 	@Override
 	public final String build() {
@@ -193,6 +290,43 @@ public final class OrigamiCleaner implements OrigamiBuilder<String> {
 	}
 	@Override
 	public final FrameBuilder createFrameBuilder() {
-		return new FrameCleaner(cleanDocumentBuilder);
+		cleanDocumentBuilder.append("\t<frame>");
+		return frameCleaner;
+	}
+	/**
+	 * Returns -1, as a cleaner does not use paints.
+	 */
+	@Override
+	public final int getPaintCacheHitCount() {
+		return -1;
+	}
+	/**
+	 * Returns -1, as a cleaner does not use paints.
+	 */
+	@Override
+	public final int getPaintCacheMissCount() {
+		return -1;
+	}
+	/**
+	 * Returns the number of instructions received so far which had no effect, such as a "line" instruction to the current
+	 * point. The "close" instruction every polygon implicitly ends with is counted if it has no effect.
+	 */
+	@Override
+	public final int getRedundantInstructionCount() {
+		return redundantInstructionCount;
+	}
+	/**
+	 * Returns the number of instructions removed so far. The "close" instruction every polygon implicitly ends with is not
+	 * counted.
+	 */
+	public final int getRemovedInstructionCount() {
+		return removedInstructionCount;
+	}
+	@Override
+	public final void reset() {
+		cleanDocumentBuilder.setLength(0);
+		cleanDocumentBuilder.append("<origami>\n");
+		redundantInstructionCount = 0;
+		removedInstructionCount = 0;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package org.ilumbo.origami.cleaning;
+
+import java.util.Arrays;
+
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
+
+/**
+ * Simplifies the geometry of a polygon, and passes the simplified polygon on to another polygon builder (the target). All of
+ * the work is done in the exact coordinate space, so no rounding is involved.
+ *
+ * Every sub-path is treated as a ring, as a polygon is filled as if every sub-path is closed. Duplicate vertices and vertices
+ * which lie on the line through their neighbours are removed. This includes the tips of spikes, where the path goes back the
+ * way it came. Sub-paths that collapse to fewer than three vertices have no area, and are dropped altogether. None of this
+ * changes the filled area.
+ *
+ * If the tolerance is not zero, the rings are additionally simplified using the Douglas–Peucker algorithm: vertices which lie
+ * within the tolerance of the simplified ring are removed. This does change the filled area, albeit by no more than the
+ * tolerance.
+ *
+ * Every sub-path is passed to the target starting with a "move" instruction. Sub-paths which were closed are passed with a
+ * "close" instruction at the end.
+ */
+public final class PolygonSimplifier implements PolygonBuilder {
+	/**
+	 * The number of instructions passed to the target.
+	 */
+	private int emittedInstructionCount;
+	/**
+	 * Flags which mark the vertices which are kept by the Douglas–Peucker algorithm.
+	 */
+	private boolean[] keptVertices;
+	/**
+	 * The vertex (in the same form as those in the vertices array below) on which the sub-path last passed to the target
+	 * ended, if said sub-path was not closed.
+	 */
+	private int previousSubPathEnd;
+	/**
+	 * Whether the sub-path last passed to the target was not closed.
+	 */
+	private boolean previousSubPathOpen;
+	/**
+	 * The number of instructions passed to this simplifier.
+	 */
+	private int receivedInstructionCount;
+	/**
+	 * The stack of (start, end) index pairs of the stretches of the ring the Douglas–Peucker algorithm has yet to process.
+	 */
+	private int[] stretchStack;
+	/**
+	 * Whether the current sub-path is closed.
+	 */
+	private boolean subPathClosed;
+	/**
+	 * The vertex (in the same form as those in the vertices array below) where the current sub-path originated from.
+	 */
+	private int subPathStart;
+	/**
+	 * The builder to which the simplified polygon is passed.
+	 */
+	private final PolygonBuilder target;
+	/**
+	 * The tolerance of the Douglas–Peucker algorithm, in exact units. Zero if that algorithm is not applied.
+	 */
+	private final int tolerance;
+	/**
+	 * The number of vertices in the array below which are in use.
+	 */
+	private int vertexCount;
+	/**
+	 * The vertices of the current sub-path. The exact x coordinate is in the upper bits, the exact y coordinate in the lower 12
+	 * bits.
+	 */
+	private int[] vertices;
+	/**
+	 * Creates a simplifier which passes the simplified polygon on to the passed target. A tolerance of zero means only the
+	 * simplifications which do not change the filled area are applied.
+	 */
+	public PolygonSimplifier(PolygonBuilder target, int tolerance) {
+		if (tolerance < 0) {
+			throw new IllegalArgumentException("The tolerance must not be negative");
+		}
+		this.target = target;
+		this.tolerance = tolerance;
+		vertices = new int[16];
+		// Before any instructions are read, the start point of the current sub-path is at the top-left.
+		subPathStart = 0;
+	}
+	@Override
+	public final void addClose() {
+		receivedInstructionCount++;
+		// If the current sub-path has no vertices, it was closed already (or the polygon has only just started). Closing it
+		// again has no effect.
+		if (0 == vertexCount) {
+			return;
+		}
+		subPathClosed = true;
+		flushSubPath();
+	}
+	@Override
+	public final void addLine(float x, float y, int exactX, int exactY) {
+		receivedInstructionCount++;
+		// If the current sub-path has no vertices, this line starts a new one at the point where the previous one originated
+		// from.
+		if (0 == vertexCount) {
+			addVertex(subPathStart);
+		}
+		addVertex((exactX << 12) | exactY);
+	}
+	@Override
+	public final void addMove(float x, float y, int exactX, int exactY) {
+		receivedInstructionCount++;
+		flushSubPath();
+		addVertex(subPathStart = (exactX << 12) | exactY);
+	}
+	/**
+	 * Adds the passed vertex to the current sub-path.
+	 */
+	private final void addVertex(int vertex) {
+		if (vertices.length == vertexCount) {
+			vertices = Arrays.copyOf(vertices, vertexCount << 1);
+		}
+		vertices[vertexCount++] = vertex;
+	}
+	@Override
+	public final void build() {
+		flushSubPath();
+		target.build();
+	}
+	/**
+	 * Returns the cross product of the vector from the first to the second passed vertex and the vector from the first to the
+	 * third passed vertex. This is zero if the three vertices lie on one line.
+	 */
+	private static final int cross(int first, int second, int third) {
+		final int firstX = first >>> 12;
+		final int firstY = first & 0xFFF;
+		return ((second >>> 12) - firstX) * ((third & 0xFFF) - firstY) -
+				((second & 0xFFF) - firstY) * ((third >>> 12) - firstX);
+	}
+	/**
+	 * Simplifies the current sub-path, passes it to the target unless it has been dropped, and starts a new sub-path.
+	 */
+	private final void flushSubPath() {
+		if (0 != vertexCount) {
+			removeCollinearVertices();
+			// Apply the Douglas–Peucker algorithm. Removing vertices could cause others to lie on one line, so remove those
+			// afterwards.
+			if (0 != tolerance && 0 != vertexCount) {
+				simplifyDouglasPeucker();
+				removeCollinearVertices();
+			}
+			if (0 != vertexCount) {
+				passSubPath();
+			}
+		}
+		vertexCount = 0;
+		subPathClosed = false;
+	}
+	/**
+	 * Returns the number of instructions passed to this simplifier which were not passed on to the target.
+	 */
+	public final int getRemovedInstructionCount() {
+		return receivedInstructionCount - emittedInstructionCount;
+	}
+	/**
+	 * Passes the current sub-path to the target.
+	 */
+	private final void passSubPath() {
+		// If the previous sub-path was not closed and ended where this one starts, some builders (such as the cleaner) would
+		// consider the "move" instruction below redundant. Close the previous sub-path so they do not join the two.
+		if (previousSubPathOpen && previousSubPathEnd == vertices[0]) {
+			target.addClose();
+			emittedInstructionCount++;
+		}
+		target.addMove((vertices[0] >>> 12) / 2048f, (vertices[0] & 0xFFF) / 2048f,
+				vertices[0] >>> 12, vertices[0] & 0xFFF);
+		for (int index = 1; vertexCount != index; index++) {
+			final int vertex = vertices[index];
+			target.addLine((vertex >>> 12) / 2048f, (vertex & 0xFFF) / 2048f,
+					vertex >>> 12, vertex & 0xFFF);
+		}
+		emittedInstructionCount += vertexCount;
+		if (subPathClosed) {
+			target.addClose();
+			emittedInstructionCount++;
+			previousSubPathOpen = false;
+		} else {
+			previousSubPathOpen = true;
+			previousSubPathEnd = vertices[vertexCount - 1];
+		}
+	}
+	/**
+	 * Removes the duplicate vertices and the vertices which lie on the line through their neighbours from the current
+	 * sub-path, which is treated as a ring. If fewer than three vertices remain, all of them are removed.
+	 */
+	private final void removeCollinearVertices() {
+		// Walk the vertices, keeping the ones that have been kept so far on a stack (which is the start of the array). Before a
+		// vertex is pushed, pop the ones it makes redundant.
+		int count = 0;
+		for (int index = 0; vertexCount != index; index++) {
+			final int vertex = vertices[index];
+			while (count >= 2 &&
+					0 == cross(vertices[count - 2], vertices[count - 1], vertex)) {
+				count--;
+			}
+			if (0 != count && vertices[count - 1] == vertex) {
+				continue;
+			}
+			vertices[count++] = vertex;
+		}
+		// The last vertex connects to the first one. Remove redundant vertices around that connection.
+		int first = 0;
+		while (count - first >= 3) {
+			if (vertices[count - 1] == vertices[first] ||
+					0 == cross(vertices[count - 2], vertices[count - 1], vertices[first])) {
+				count--;
+			} else if (0 == cross(vertices[count - 1], vertices[first], vertices[first + 1])) {
+				first++;
+			} else {
+				break;
+			}
+		}
+		if (count - first < 3) {
+			vertexCount = 0;
+		} else {
+			System.arraycopy(vertices, first, vertices, 0, vertexCount = count - first);
+		}
+	}
+	/**
+	 * Returns this simplifier to its initial state, so it can simplify another polygon. The buffers are kept.
+	 */
+	/* package */ final void reset() {
+		emittedInstructionCount = 0;
+		receivedInstructionCount = 0;
+		previousSubPathOpen = false;
+		vertexCount = 0;
+		subPathClosed = false;
+		subPathStart = 0;
+	}
+	@Override
+	public final void setFill(int lightness, int alpha) {
+		target.setFill(lightness, alpha);
+	}
+	/**
+	 * Applies the Douglas–Peucker algorithm to the current sub-path, which is treated as a ring.
+	 */
+	private final void simplifyDouglasPeucker() {
+		// Append the first vertex to the end, so the ring can be treated as a path which ends where it starts.
+		addVertex(vertices[0]);
+		final int endIndex = --vertexCount;
+		if (null == keptVertices || keptVertices.length < vertices.length) {
+			keptVertices = new boolean[vertices.length];
+			stretchStack = new int[vertices.length << 1];
+		}
+		Arrays.fill(keptVertices, 0, endIndex + 1, false);
+		// Split the ring at the first vertex and the vertex furthest from it, which are both kept.
+		int furthestIndex = 0;
+		{
+			double furthestSquaredDistance = -1;
+			for (int index = 1; endIndex != index; index++) {
+				final double squaredDistance = squaredDistance(vertices[index], vertices[0], vertices[0]);
+				if (squaredDistance > furthestSquaredDistance) {
+					furthestSquaredDistance = squaredDistance;
+					furthestIndex = index;
+				}
+			}
+		}
+		keptVertices[0] = keptVertices[furthestIndex] = keptVertices[endIndex] = true;
+		int stackSize = 0;
+		stretchStack[stackSize++] = 0;
+		stretchStack[stackSize++] = furthestIndex;
+		stretchStack[stackSize++] = furthestIndex;
+		stretchStack[stackSize++] = endIndex;
+		// Process the stretches. If the vertex in a stretch furthest from the line segment between its ends lies outside the
+		// tolerance, that vertex is kept and the stretch is split there.
+		final double squaredTolerance = (double) tolerance * tolerance;
+		while (0 != stackSize) {
+			final int stretchEnd = stretchStack[--stackSize];
+			final int stretchStart = stretchStack[--stackSize];
+			int furthestStretchIndex = -1;
+			double furthestSquaredDistance = squaredTolerance;
+			for (int index = stretchStart + 1; stretchEnd > index; index++) {
+				final double squaredDistance = squaredDistance(vertices[index], vertices[stretchStart], vertices[stretchEnd]);
+				if (squaredDistance > furthestSquaredDistance) {
+					furthestSquaredDistance = squaredDistance;
+					furthestStretchIndex = index;
+				}
+			}
+			if (-1 != furthestStretchIndex) {
+				keptVertices[furthestStretchIndex] = true;
+				stretchStack[stackSize++] = stretchStart;
+				stretchStack[stackSize++] = furthestStretchIndex;
+				stretchStack[stackSize++] = furthestStretchIndex;
+				stretchStack[stackSize++] = stretchEnd;
+			}
+		}
+		// Remove the vertices which are not kept. The appended vertex is left out.
+		int count = 0;
+		for (int index = 0; endIndex != index; index++) {
+			if (keptVertices[index]) {
+				vertices[count++] = vertices[index];
+			}
+		}
+		vertexCount = count;
+	}
+	/**
+	 * Returns the square of the distance between the passed vertex and the line segment between the two other passed vertices.
+	 */
+	private static final double squaredDistance(int vertex, int segmentStart, int segmentEnd) {
+		final int startX = segmentStart >>> 12;
+		final int startY = segmentStart & 0xFFF;
+		final double segmentX = (segmentEnd >>> 12) - startX;
+		final double segmentY = (segmentEnd & 0xFFF) - startY;
+		final double vertexX = (vertex >>> 12) - startX;
+		final double vertexY = (vertex & 0xFFF) - startY;
+		final double squaredSegmentLength = segmentX * segmentX + segmentY * segmentY;
+		// Project the vertex onto the segment, and use the distance to the closest point on the segment.
+		final double projection = 0 == squaredSegmentLength ? 0 :
+				Math.max(0, Math.min(1, (vertexX * segmentX + vertexY * segmentY) / squaredSegmentLength));
+		final double differenceX = vertexX - projection * segmentX;
+		final double differenceY = vertexY - projection * segmentY;
+		return differenceX * differenceX + differenceY * differenceY;
+	}
+}
\ No newline at end of file
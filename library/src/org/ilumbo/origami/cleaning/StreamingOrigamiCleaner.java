@@ -0,0 +1,299 @@
+package org.ilumbo.origami.cleaning;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+import android.util.Log;
+
+/**
+ * Builds a cleaned origami document, exactly like {@link OrigamiCleaner} does. However, instead of keeping the entire document
+ * in memory this builder writes it to a writer as it goes. Instructions are encoded into a re-used character buffer, so no
+ * strings are created per instruction. The only instruction that is held back is a trailing "close" one, which might turn out
+ * to be redundant.
+ *
+ * The result is the writer, which has been flushed but not closed. If writing fails, a runtime exception is thrown.
+ */
+public final class StreamingOrigamiCleaner implements OrigamiBuilder<Writer> {
+	private final class FrameCleaner implements FrameBuilder {
+		private final class PolygonCleaner implements PolygonBuilder {
+			/**
+			 * The x coordinate of the point that is last "move"d or "line"d to.
+			 */
+			private int currentPointX;
+			/**
+			 * The y coordinate of the point that is last "move"d or "line"d to.
+			 */
+			private int currentPointY;
+			/**
+			 * The x coordinate of the point where the current sub-path originated from.
+			 */
+			private int currentSubPathStartPointX;
+			/**
+			 * The y coordinate of the point where the current sub-path originated from.
+			 */
+			private int currentSubPathStartPointY;
+			/**
+			 * Whether a "close" instruction element has been held back. Such an element is written once another instruction
+			 * element follows it, and dropped if the polygon ends instead. A polygon implicitly ends with a "close"
+			 * instruction.
+			 */
+			private boolean pendingClose;
+			@Override
+			public final void addClose() {
+				if (false == addLine(currentSubPathStartPointX, currentSubPathStartPointY) &&
+						Log.isLoggable(LOG_TAG, Log.VERBOSE)) {
+					Log.v(LOG_TAG, "Redundant close instruction");
+				}
+			}
+			/**
+			 * Adds a line instruction and returns true, or returns false if adding such an instruction would have no effect.
+			 */
+			private final boolean addLine(int exactX, int exactY) {
+				// If the coordinates of the current point equal those passed, there is no need to add an instruction as such
+				// an instruction would have no effect.
+				if (currentPointX == exactX && currentPointY == exactY) {
+					return false;
+				}
+				writePendingClose();
+				// If the passed coordinates equal those of the start point of the current sub-path, a close instruction will
+				// suffice. Hold it back.
+				if (currentSubPathStartPointX == exactX && currentSubPathStartPointY == exactY) {
+					pendingClose = true;
+				} else {
+					writeInstruction(LINE_START_TAG, exactX, exactY, LINE_END_TAG);
+				}
+				currentPointX = exactX;
+				currentPointY = exactY;
+				return true;
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				if (false == addLine(exactX, exactY) &&
+						Log.isLoggable(LOG_TAG, Log.VERBOSE)) {
+					Log.v(LOG_TAG, new StringBuilder(64)
+							.append("Redundant line instruction to ")
+							.append(x)
+							.append(", ")
+							.append(y)
+							.append(" found")
+							.toString());
+				}
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				// If the coordinates of the current point equal the passed ones, there is no need to add an instruction as such
+				// an instruction would have no effect.
+				if (currentPointX == exactX && currentPointY == exactY) {
+					if (Log.isLoggable(LOG_TAG, Log.VERBOSE)) {
+						Log.v(LOG_TAG, new StringBuilder(64)
+								.append("Redundant move instruction to ")
+								.append(x)
+								.append(", ")
+								.append(y)
+								.append(" found")
+								.toString());
+					}
+					return;
+				}
+				// Add the instruction.
+				writePendingClose();
+				writeInstruction(MOVE_START_TAG, exactX, exactY, MOVE_END_TAG);
+				currentPointX = currentSubPathStartPointX = exactX;
+				currentPointY = currentSubPathStartPointY = exactY;
+			}
+			@Override
+			public final void build() {
+				// A held back "close" instruction element is dropped here, as a polygon implicitly ends with one.
+				write(POLYGON_END_TAG);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				write(POLYGON_START_TAG);
+				writeHexadecimal(lightness, 2);
+				writeHexadecimal(alpha, 2);
+				write(POLYGON_START_TAG_END);
+			}
+			/**
+			 * Writes the "close" instruction element that has been held back, if any.
+			 */
+			private final void writePendingClose() {
+				if (pendingClose) {
+					write(CLOSE_ELEMENT);
+					pendingClose = false;
+				}
+			}
+		}
+		@Override
+		public final void build() {
+			write(FRAME_END_TAG);
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return this.new PolygonCleaner();
+		}
+	}
+	/**
+	 * The "close" instruction element.
+	 */
+	private static final String CLOSE_ELEMENT = "<close/>";
+	/**
+	 * The "origami" element end tag.
+	 */
+	private static final String DOCUMENT_END_TAG = "</origami>";
+	/**
+	 * The "origami" element start tag, and the line break after it.
+	 */
+	private static final String DOCUMENT_START_TAG = "<origami>\n";
+	/**
+	 * The "frame" element end tag, and the line break after it.
+	 */
+	private static final String FRAME_END_TAG = "</frame>\n";
+	/**
+	 * The indentation before the "frame" element start tag, and said tag.
+	 */
+	private static final String FRAME_START_TAG = "\t<frame>";
+	/**
+	 * The digits used to write hexadecimal integers.
+	 */
+	private static final char[] HEXADECIMAL_DIGITS = "0123456789abcdef".toCharArray();
+	/**
+	 * The "line" element end tag.
+	 */
+	private static final String LINE_END_TAG = "</line>";
+	/**
+	 * The "line" element start tag.
+	 */
+	private static final String LINE_START_TAG = "<line>";
+	/**
+	 * The tag used for logging.
+	 */
+	private static final String LOG_TAG = OrigamiCleaner.class.getSimpleName();
+	/**
+	 * The "move" element end tag.
+	 */
+	private static final String MOVE_END_TAG = "</move>";
+	/**
+	 * The "move" element start tag.
+	 */
+	private static final String MOVE_START_TAG = "<move>";
+	/**
+	 * The "polygon" element end tag.
+	 */
+	private static final String POLYGON_END_TAG = "</polygon>";
+	/**
+	 * The "polygon" element start tag, up to the value of the fill attribute.
+	 */
+	private static final String POLYGON_START_TAG = "<polygon fill=\"";
+	/**
+	 * The rest of the "polygon" element start tag, after the value of the fill attribute.
+	 */
+	private static final String POLYGON_START_TAG_END = "\">";
+	/**
+	 * The buffer in which characters are collected before they are written to the writer.
+	 */
+	private final char[] buffer;
+	/**
+	 * The number of characters in the buffer above which are in use.
+	 */
+	private int bufferLength;
+	/**
+	 * The writer to which the cleaned document is written.
+	 */
+	private final Writer writer;
+	/**
+	 * Creates a streaming cleaner which writes the cleaned document to the passed output stream, in US-ASCII.
+	 */
+	public StreamingOrigamiCleaner(OutputStream outputStream) {
+		this(createWriter(outputStream));
+	}
+	/**
+	 * Creates a streaming cleaner which writes the cleaned document to the passed writer.
+	 */
+	public StreamingOrigamiCleaner(Writer writer) {
+		this.writer = writer;
+		buffer = new char[0x400];
+		write(DOCUMENT_START_TAG);
+	}
+	@Override
+	public final Writer build() {
+		write(DOCUMENT_END_TAG);
+		try {
+			flushBuffer();
+			writer.flush();
+		} catch (IOException exception) {
+			throw new RuntimeException(exception);
+		}
+		return writer;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		write(FRAME_START_TAG);
+		return this.new FrameCleaner();
+	}
+	/**
+	 * Creates a writer which writes to the passed output stream in US-ASCII.
+	 */
+	private static final Writer createWriter(OutputStream outputStream) {
+		try {
+			return new OutputStreamWriter(outputStream, "US-ASCII");
+		// Every implementation of the Java platform is required to support US-ASCII.
+		} catch (UnsupportedEncodingException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+	/**
+	 * Writes the characters in the buffer to the writer, and empties the buffer.
+	 */
+	private final void flushBuffer() throws IOException {
+		writer.write(buffer, 0, bufferLength);
+		bufferLength = 0;
+	}
+	/**
+	 * Ensures the buffer has room for at least the passed number of characters.
+	 */
+	private final void reserve(int length) {
+		if (bufferLength + length > buffer.length) {
+			try {
+				flushBuffer();
+			} catch (IOException exception) {
+				throw new RuntimeException(exception);
+			}
+		}
+	}
+	/**
+	 * Writes the passed string, which is shorter than the buffer.
+	 */
+	private final void write(String value) {
+		final int length = value.length();
+		reserve(length);
+		value.getChars(0, length, buffer, bufferLength);
+		bufferLength += length;
+	}
+	/**
+	 * Writes the passed value in hexadecimal, prepending zeroes to the passed number of digits if required.
+	 */
+	private final void writeHexadecimal(int value, int minimumDigitCount) {
+		int digitCount = minimumDigitCount;
+		while (0 != (value >>> (digitCount << 2)) && digitCount != 8) {
+			digitCount++;
+		}
+		reserve(digitCount);
+		for (int index = digitCount - 1; -1 != index; index--) {
+			buffer[bufferLength++] = HEXADECIMAL_DIGITS[(value >>> (index << 2)) & 0xF];
+		}
+	}
+	/**
+	 * Writes a "move" or "line" instruction element with the passed tags and coordinates.
+	 */
+	private final void writeInstruction(String startTag, int exactX, int exactY, String endTag) {
+		write(startTag);
+		writeHexadecimal(exactX, 3);
+		writeHexadecimal(exactY, 3);
+		write(endTag);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package org.ilumbo.origami.drawing;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+/**
+ * Draws a frame, like its superclass. However, when the frame is drawn transformed, it is rendered into a bitmap once and that
+ * bitmap is drawn from then on. The bitmaps are kept in a {@link FrameBitmapCache}, which can be shared between many caching
+ * frame drawers.
+ */
+public class CachingFrameDrawer extends FrameDrawer {
+	/**
+	 * The cache which keeps the bitmap of this frame drawer.
+	 */
+	private final FrameBitmapCache cache;
+	/**
+	 * Creates a caching frame drawer which draws the same frame as the passed frame drawer. The paths and paints are shared.
+	 */
+	public CachingFrameDrawer(FrameDrawer frameDrawer, FrameBitmapCache cache) {
+		super(frameDrawer);
+		this.cache = cache;
+	}
+	public CachingFrameDrawer(Path[] paths, Paint[] paints, FrameBitmapCache cache) {
+		this(paths, paints, null, null, cache);
+	}
+	public CachingFrameDrawer(Path[] paths, Paint[] paints, int[] pathBounds, long[] pathHashes, FrameBitmapCache cache) {
+		super(paths, paints, pathBounds, pathHashes);
+		this.cache = cache;
+	}
+	/**
+	 * Draws the frame to the passed canvas, transformed according to the passed properties. If the cache has a bitmap of this
+	 * frame at the passed size, that bitmap is drawn. Otherwise, the frame is rendered into a bitmap first.
+	 */
+	@Override
+	public void draw(Canvas canvas, float x, float y, float width, float height) {
+		cache.draw(this, canvas, x, y, width, height);
+	}
+	/**
+	 * Draws the frame to the passed canvas, transformed according to the passed properties, without using the cache.
+	 */
+	/* package */ final void drawUncached(Canvas canvas, float x, float y, float width, float height) {
+		super.draw(canvas, x, y, width, height);
+	}
+	/**
+	 * Removes the bitmap of this frame from the cache, if any. Call this once this frame drawer is no longer used to free up
+	 * the memory sooner.
+	 */
+	public void evictBitmap() {
+		cache.remove(this);
+	}
+}
@@ -2,21 +2,91 @@ package org.ilumbo.origami.drawing;
 
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.util.SparseIntArray;
 
 /**
  * Similar to {@link OrigamiDrawerBuilder}, but tries to use as few paths as possible internally. This typically reduces the
  * number of times a path has to be drawn, but increases the boundries of those paths.
+ *
+ * By default, every polygon is merged into the first path with the same paint. This ignores the order in which the polygons
+ * are drawn, so a polygon can end up behind another one it should be in front of. In order-safe mode, a polygon is only merged
+ * into the latest path with the same paint, and only if its bounding box overlaps neither that path nor any path drawn after
+ * it. The result is drawn exactly like the result of a regular origami drawer builder, only with fewer draw calls.
+ *
+ * As polygons are merged into paths after those paths have been added, only frames are deduplicated (never polygons).
  */
 public class EconomicOrigamiDrawerBuilder extends OrigamiDrawerBuilder {
 	protected class EconomicFrameDrawerBuilder extends FrameDrawerBuilder {
+		/**
+		 * Builds a path-paint combination in order-safe mode. The polygon is built into a path of its own first. Once it is
+		 * complete, it is either merged into an existing path or added as a new one.
+		 */
+		protected class OrderSafePathPaintBuilder implements PolygonBuilder {
+			/**
+			 * The bounds of the polygon in exact coordinates, and its content hash.
+			 */
+			private final PolygonBounds bounds;
+			/**
+			 * The key of the paint, which is (lightness << 8) | (alpha << 0).
+			 */
+			private int key;
+			/**
+			 * The paint.
+			 */
+			private Paint paint;
+			/**
+			 * The path the polygon is built into.
+			 */
+			private final Path path;
+			public OrderSafePathPaintBuilder() {
+				// Re-use the path of the previous polygon if that one has been merged.
+				if (null == scratchPath) {
+					path = new Path();
+				} else {
+					path = scratchPath;
+					scratchPath = null;
+				}
+				bounds = createPolygonBounds();
+			}
+			@Override
+			public final void addClose() {
+				bounds.includeClose();
+				path.close();
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				bounds.includeLine(exactX, exactY);
+				path.lineTo(x, y);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				bounds.includeMove(exactX, exactY);
+				path.moveTo(x, y);
+			}
+			@Override
+			public final void build() {
+				addOrderSafePolygon(path, paint, key, bounds);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				paint = getSharedPaint(lightness, alpha);
+				key = (lightness << 8) | (alpha << 0);
+				bounds.includeFill(paint.getColor());
+			}
+		}
 		protected class ReusedPathPaintBuilder implements PolygonBuilder {
+			/**
+			 * The index of the re-used path in the path list.
+			 */
+			private final int pathIndex;
 			/**
 			 * The path-paint builder this wrapper wraps around. Said builder has a re-used path and paint.
 			 */
 			private final PathPaintBuilder wrapee;
-			public ReusedPathPaintBuilder(Path path, Paint paint) {
+			public ReusedPathPaintBuilder(Path path, Paint paint, int pathIndex) {
 				(wrapee = new PathPaintBuilder(path))
 						.setFill(paint);
+				this.pathIndex = pathIndex;
 			}
 			@Override
 			public final void addClose() {
@@ -32,7 +102,8 @@ public class EconomicOrigamiDrawerBuilder extends OrigamiDrawerBuilder {
 			}
 			@Override
 			public final void build() {
-				// The path and paint have already been added to the lists.
+				// The path and paint have already been added to the lists. Only the bounds and content hash of the path change.
+				mergeIntoPath(pathIndex, wrapee.bounds);
 			}
 			@Override
 			public final void setFill(int lightness, int alpha) {
@@ -65,25 +136,109 @@ public class EconomicOrigamiDrawerBuilder extends OrigamiDrawerBuilder {
 				// Grab the paint that the wrapee should include.
 				final Paint paint = getSharedPaint(lightness, alpha);
 				// Check whether the frame drawer builder already used this paint.
-				final int paintCount = paintList.size();
-				for (int index = 0; paintCount != index; index++) {
-					if (paint == paintList.get(index)) {
-						wrapee = new ReusedPathPaintBuilder(pathList.get(index), paintList.get(index));
-						return;
-					}
+				final int key = (lightness << 8) | (alpha << 0);
+				final int index = batchIndices.get(key, -1);
+				if (-1 != index) {
+					wrapee = new ReusedPathPaintBuilder(pathList.get(index), paintList.get(index), index);
+					return;
 				}
 				// If no polygon builder was found with the paint, create it and wrap it and forward the setFill call to it
-				// directly.
+				// directly. The path will be added to the list once the polygon is built, at the current size of the list.
+				batchIndices.put(key, pathList.size());
 				final PathPaintBuilder newPolygonBuider = EconomicFrameDrawerBuilder.this.new PathPaintBuilder();
 				wrapee = newPolygonBuider;
 				newPolygonBuider.setFill(paint);
 			}
 		}
+		/**
+		 * The index of a path in the path list for every paint used in this frame, where the key is
+		 * (lightness << 8) | (alpha << 0). In order-safe mode this is the latest path, otherwise the first.
+		 */
+		private final SparseIntArray batchIndices;
+		/**
+		 * The wrapper which is re-used for every polygon. Only used if not in order-safe mode.
+		 */
+		private PathPaintBuilderWrapper pathPaintBuilderWrapper;
+		/**
+		 * A path that is no longer in use, which can be used for the next polygon. Only used in order-safe mode.
+		 */
+		private Path scratchPath;
+		public EconomicFrameDrawerBuilder() {
+			batchIndices = new SparseIntArray(16);
+		}
+		/**
+		 * Adds the passed polygon to the lists, either by merging it into an existing path or by adding it as a new one. Only
+		 * used in order-safe mode.
+		 */
+		private final void addOrderSafePolygon(Path path, Paint paint, int key, PolygonBounds bounds) {
+			final int batchCount = pathList.size();
+			final int batchIndex = batchIndices.get(key, -1);
+			// Merge the polygon into the latest path with the same paint, if the polygon overlaps neither that path nor any
+			// path after it. Overlapping that path itself is not allowed either, as the overlapping part would then be drawn
+			// once instead of twice (or even not at all, depending on the direction of the polygons).
+			merge: if (-1 != batchIndex && batchCount - batchIndex <= MAXIMUM_LOOKBACK) {
+				for (int index = batchIndex; batchCount != index; index++) {
+					if (bounds.overlaps(pathBounds, index << 2)) {
+						break merge;
+					}
+				}
+				pathList.get(batchIndex).addPath(path);
+				mergeIntoPath(batchIndex, bounds);
+				// The path of the polygon is no longer needed. Re-use it for the next polygon.
+				path.rewind();
+				scratchPath = path;
+				return;
+			}
+			// Add the polygon as a new path.
+			batchIndices.put(key, batchCount);
+			addPath(path, paint, bounds);
+		}
 		@Override
 		public PolygonBuilder createPolygonBuilder() {
-			return this.new PathPaintBuilderWrapper();
+			if (orderSafe) {
+				return this.new OrderSafePathPaintBuilder();
+			} else {
+				// The polygons of a frame are built one after another, and the wrapper determines what it wraps in its setFill
+				// method. Therefore, one wrapper suffices.
+				if (null == pathPaintBuilderWrapper) {
+					pathPaintBuilderWrapper = this.new PathPaintBuilderWrapper();
+				}
+				return pathPaintBuilderWrapper;
+			}
 		}
 	}
+	/**
+	 * The maximum number of paths a polygon is compared against in order-safe mode. If the latest path with the same paint is
+	 * further back than this, the polygon is added as a new path. This keeps the time it takes to build a frame linear in the
+	 * number of polygons.
+	 */
+	private static final int MAXIMUM_LOOKBACK = 64;
+	/**
+	 * Whether polygons are only merged if that does not change the order in which they are drawn.
+	 */
+	private final boolean orderSafe;
+	/**
+	 * Creates an economic origami drawer builder which merges every polygon into the first path with the same paint.
+	 */
+	public EconomicOrigamiDrawerBuilder() {
+		this(false);
+	}
+	/**
+	 * Creates an economic origami drawer builder. If order-safe is true, polygons are only merged if that does not change the
+	 * order in which they are drawn.
+	 */
+	public EconomicOrigamiDrawerBuilder(boolean orderSafe) {
+		this(null, false, orderSafe);
+	}
+	/**
+	 * Creates an economic origami drawer builder which takes its paints from the passed pool (or creates its own paints if the
+	 * pool is null). If deduplicate is true, frames with the same content share one frame drawer. If order-safe is true,
+	 * polygons are only merged if that does not change the order in which they are drawn.
+	 */
+	public EconomicOrigamiDrawerBuilder(PaintPool paintPool, boolean deduplicate, boolean orderSafe) {
+		super(paintPool, false, deduplicate);
+		this.orderSafe = orderSafe;
+	}
 	@Override
 	public FrameBuilder createFrameBuilder() {
 		return this.new EconomicFrameDrawerBuilder();
@@ -0,0 +1,137 @@
+package org.ilumbo.origami.drawing;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.LruCache;
+
+/**
+ * Keeps frames rendered into bitmaps, so drawing them again is a single bitmap draw instead of filling every path. Frames are
+ * drawn through {@link CachingFrameDrawer}s that share one cache. The cache has a budget in bytes. Once the bitmaps exceed it,
+ * the least recently used ones are evicted, regardless of the document they belong to. Sharing one cache between all of the
+ * documents on a screen (such as a list of thumbnails) therefore bounds the memory used by all of them together.
+ *
+ * Every frame drawer has at most one bitmap. If it is drawn at another size, the frame is rendered again at the new size and
+ * the old bitmap is dropped.
+ *
+ * Frames are expected to be drawn from one thread (the UI thread).
+ */
+public final class FrameBitmapCache {
+	/**
+	 * Maps frame drawers to their bitmaps, measuring the bitmaps in bytes.
+	 */
+	private static final class BitmapLruCache extends LruCache<CachingFrameDrawer, Bitmap> {
+		public BitmapLruCache(int maximumByteCount) {
+			super(maximumByteCount);
+		}
+		@Override
+		protected final int sizeOf(CachingFrameDrawer frameDrawer, Bitmap bitmap) {
+			return bitmap.getByteCount();
+		}
+	}
+	/**
+	 * The number of bytes per pixel of the bitmaps.
+	 */
+	private static final int BYTES_PER_PIXEL = 4;
+	/**
+	 * The bitmaps.
+	 */
+	private final BitmapLruCache bitmaps;
+	/**
+	 * The number of times a frame was drawn from a bitmap in this cache.
+	 */
+	private int hitCount;
+	/**
+	 * The number of times a frame was drawn for which this cache had no bitmap of the right size.
+	 */
+	private int missCount;
+	/**
+	 * Creates a cache which keeps bitmaps of at most the passed total number of bytes.
+	 */
+	public FrameBitmapCache(int maximumByteCount) {
+		bitmaps = new BitmapLruCache(maximumByteCount);
+	}
+	/**
+	 * Draws the frame of the passed frame drawer to the passed canvas, transformed according to the passed properties. The
+	 * bitmap is used if it has the right size, otherwise the frame is rendered into a new one first. A negative width or height
+	 * mirrors the frame, in which case the bitmap is rendered at the absolute size and drawn mirrored.
+	 */
+	/* package */ final void draw(CachingFrameDrawer frameDrawer, Canvas canvas, float x, float y, float width, float height) {
+		final float absoluteWidth = Math.abs(width);
+		final float absoluteHeight = Math.abs(height);
+		final int bitmapWidth = (int) Math.ceil(absoluteWidth);
+		final int bitmapHeight = (int) Math.ceil(absoluteHeight);
+		if (0 == bitmapWidth || 0 == bitmapHeight) {
+			return;
+		}
+		Bitmap bitmap = bitmaps.get(frameDrawer);
+		if (null != bitmap && bitmapWidth == bitmap.getWidth() && bitmapHeight == bitmap.getHeight()) {
+			hitCount++;
+		} else {
+			missCount++;
+			// If the bitmap would not fit in the cache at all, draw the frame directly. The bitmap of the previous size is of
+			// no use any more.
+			if ((long) bitmapWidth * bitmapHeight * BYTES_PER_PIXEL > bitmaps.maxSize()) {
+				if (null != bitmap) {
+					bitmaps.remove(frameDrawer);
+				}
+				frameDrawer.drawUncached(canvas, x, y, width, height);
+				return;
+			}
+			// Render the frame into a new bitmap. Putting it in the cache replaces the bitmap of the previous size, if any.
+			bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+			frameDrawer.drawUncached(new Canvas(bitmap), 0, 0, absoluteWidth, absoluteHeight);
+			bitmaps.put(frameDrawer, bitmap);
+		}
+		if (width > 0 && height > 0) {
+			canvas.drawBitmap(bitmap, x, y, null);
+		} else {
+			// Mirror the bitmap around the passed position, the way the frame itself would be mirrored.
+			canvas.save();
+			canvas.translate(x, y);
+			canvas.scale(Math.signum(width), Math.signum(height));
+			canvas.drawBitmap(bitmap, 0, 0, null);
+			canvas.restore();
+		}
+	}
+	/**
+	 * Removes all of the bitmaps.
+	 */
+	public final void evictAll() {
+		bitmaps.evictAll();
+	}
+	/**
+	 * Returns the total number of bytes of the bitmaps in this cache.
+	 */
+	public final int getByteCount() {
+		return bitmaps.size();
+	}
+	/**
+	 * Returns the number of times a frame was drawn from a bitmap in this cache.
+	 */
+	public final int getHitCount() {
+		return hitCount;
+	}
+	/**
+	 * Returns the number of times a frame was drawn for which this cache had no bitmap of the right size.
+	 */
+	public final int getMissCount() {
+		return missCount;
+	}
+	/**
+	 * Removes the bitmap of the passed frame drawer, if any.
+	 */
+	/* package */ final void remove(CachingFrameDrawer frameDrawer) {
+		bitmaps.remove(frameDrawer);
+	}
+	/**
+	 * Creates and returns caching frame drawers which use this cache and draw the same frames as the passed frame drawers.
+	 */
+	public final CachingFrameDrawer[] wrap(FrameDrawer[] frameDrawers) {
+		final int frameCount = frameDrawers.length;
+		final CachingFrameDrawer[] result = new CachingFrameDrawer[frameCount];
+		for (int index = 0; frameCount != index; index++) {
+			result[index] = new CachingFrameDrawer(frameDrawers[index], this);
+		}
+		return result;
+	}
+}
@@ -4,24 +4,131 @@ import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.Rect;
 
 /**
  * Draws a frame.
+ *
+ * A frame drawer created by an origami drawer builder knows the bounds of its paths in exact coordinates (0x800 being the
+ * width or height of the frame), and a hash of their content. This makes it possible to determine which part of the frame
+ * changes when it is drawn in place of another one, so only that part has to be invalidated. It also makes it possible to skip
+ * the paths which lie outside the clip of the canvas, see {@link #drawCulled(Canvas)}.
  */
 public class FrameDrawer {
+	/**
+	 * The size of the frame in exact coordinates.
+	 */
+	private static final int EXACT_SIZE = 0x800;
+	/**
+	 * The number of transformed frame drawers kept by {@link #transformCached(float, float, float, float)}.
+	 */
+	private static final int TRANSFORM_CACHE_SIZE = 4;
+	/**
+	 * For every path, its bounds as (left, top, right, bottom) in the coordinates of the path. Null if the bounds are not known.
+	 */
+	private final float[] cullingBounds;
 	/**
 	 * The paints used to draw the polygons. This array is a sibeling of the originalPaths array. A paint with an index should
 	 * be used with the path with that same index.
 	 */
 	protected final Paint[] paints;
+	/**
+	 * For every path, its bounds as (minimumX, minimumY, maximumX, maximumY) in exact coordinates. Null if the bounds are not
+	 * known.
+	 */
+	protected final int[] pathBounds;
+	/**
+	 * For every path, the hash of its content. Null if the hashes are not known.
+	 */
+	protected final long[] pathHashes;
 	/**
 	 * The paths for the polygons. This array is a sibeling of the paints array. A paint with an index should be used with the
 	 * path with that same index.
 	 */
 	protected final Path[] paths;
+	/**
+	 * The transformed frame drawers created by {@link #transformCached(float, float, float, float)}, or null if that method
+	 * has not been called yet.
+	 */
+	private FrameDrawer[] transformedDrawers;
+	/**
+	 * The index in the array above which will be used for the next transformed frame drawer. Once the array is full, this is
+	 * the index of the oldest one.
+	 */
+	private int transformedDrawerNextIndex;
+	/**
+	 * For every transformed frame drawer in the array above, the (x, y, width, height) it was transformed according to.
+	 */
+	private float[] transformedProperties;
 	public FrameDrawer(Path[] paths, Paint[] paints) {
+		this(paths, paints, null, null);
+	}
+	/**
+	 * Creates a frame drawer which draws the same frame as the passed one. The paths, paints and bounds are shared.
+	 */
+	protected FrameDrawer(FrameDrawer frameDrawer) {
+		this(frameDrawer.paths, frameDrawer.paints, frameDrawer.pathBounds, frameDrawer.pathHashes, frameDrawer.cullingBounds);
+	}
+	public FrameDrawer(Path[] paths, Paint[] paints, int[] pathBounds, long[] pathHashes) {
+		this(paths, paints, pathBounds, pathHashes, createCullingBounds(pathBounds));
+	}
+	private FrameDrawer(Path[] paths, Paint[] paints, int[] pathBounds, long[] pathHashes, float[] cullingBounds) {
 		this.paths = paths;
 		this.paints = paints;
+		this.pathBounds = pathBounds;
+		this.pathHashes = pathHashes;
+		this.cullingBounds = cullingBounds;
+	}
+	/**
+	 * Determines the bounds, in exact coordinates, of the part of the frame that changes when this frame is drawn in place of
+	 * the passed one, and stores them in the passed rectangle. Paths are compared by their index. If either frame drawer does
+	 * not know its bounds, the entire frame is considered changed. Returns whether anything changes.
+	 */
+	public final boolean computeDirtyBounds(FrameDrawer previous, Rect dirtyBounds) {
+		if (null == pathBounds || null == previous.pathBounds) {
+			dirtyBounds.set(0, 0, EXACT_SIZE, EXACT_SIZE);
+			return true;
+		}
+		dirtyBounds.setEmpty();
+		final int pathCount = paths.length;
+		final int previousPathCount = previous.paths.length;
+		final int maximumPathCount = Math.max(pathCount, previousPathCount);
+		for (int index = 0; maximumPathCount != index; index++) {
+			final int boundsIndex = index << 2;
+			// If both frames have the path at this index and their content is the same, this path does not change anything.
+			if (pathCount > index && previousPathCount > index &&
+					pathHashes[index] == previous.pathHashes[index] &&
+					pathBounds[boundsIndex] == previous.pathBounds[boundsIndex] &&
+					pathBounds[boundsIndex + 1] == previous.pathBounds[boundsIndex + 1] &&
+					pathBounds[boundsIndex + 2] == previous.pathBounds[boundsIndex + 2] &&
+					pathBounds[boundsIndex + 3] == previous.pathBounds[boundsIndex + 3]) {
+				continue;
+			}
+			if (pathCount > index) {
+				dirtyBounds.union(pathBounds[boundsIndex], pathBounds[boundsIndex + 1],
+						pathBounds[boundsIndex + 2], pathBounds[boundsIndex + 3]);
+			}
+			if (previousPathCount > index) {
+				dirtyBounds.union(previous.pathBounds[boundsIndex], previous.pathBounds[boundsIndex + 1],
+						previous.pathBounds[boundsIndex + 2], previous.pathBounds[boundsIndex + 3]);
+			}
+		}
+		return false == dirtyBounds.isEmpty();
+	}
+	/**
+	 * Creates and returns the bounds of the paths in the coordinates of the paths, from the passed bounds in exact coordinates.
+	 * Returns null if the passed bounds are null.
+	 */
+	private static final float[] createCullingBounds(int[] pathBounds) {
+		if (null == pathBounds) {
+			return null;
+		}
+		final int boundsLength = pathBounds.length;
+		final float[] result = new float[boundsLength];
+		for (int index = 0; boundsLength != index; index++) {
+			result[index] = (float) pathBounds[index] / EXACT_SIZE;
+		}
+		return result;
 	}
 	/**
 	 * Draws the frame to the passed canvas. It is not uncommon to call {@link Canvas#translate(float, float)} before calling
@@ -33,17 +140,97 @@ public class FrameDrawer {
 			canvas.drawPath(paths[index], paints[index]);
 		}
 	}
+	/**
+	 * Draws the frame to the passed canvas, transformed according to the passed properties. This draws the same as the frame
+	 * drawer returned by {@link #transform(float, float, float, float)} would, but the transformation is applied to the canvas
+	 * rather than to copies of the paths. Nothing is allocated.
+	 */
+	public void draw(Canvas canvas, float x, float y, float width, float height) {
+		canvas.save();
+		canvas.translate(x, y);
+		canvas.scale(width, height);
+		draw(canvas);
+		canvas.restore();
+	}
+	/**
+	 * Draws the frame to the passed canvas, like {@link #draw(Canvas)} does. However, the paths which lie entirely outside the
+	 * clip of the canvas are skipped. Returns the number of skipped paths. If this frame drawer does not know its bounds, no
+	 * paths are skipped.
+	 */
+	public int drawCulled(Canvas canvas) {
+		if (null == cullingBounds) {
+			draw(canvas);
+			return 0;
+		}
+		int result = 0;
+		final int pathCount = paths.length;
+		for (int index = 0; pathCount != index; index++) {
+			final int boundsIndex = index << 2;
+			if (canvas.quickReject(cullingBounds[boundsIndex], cullingBounds[boundsIndex + 1],
+					cullingBounds[boundsIndex + 2], cullingBounds[boundsIndex + 3], Canvas.EdgeType.AA)) {
+				result++;
+			} else {
+				canvas.drawPath(paths[index], paints[index]);
+			}
+		}
+		return result;
+	}
+	/**
+	 * Draws the frame to the passed canvas transformed according to the passed properties, like
+	 * {@link #draw(Canvas, float, float, float, float)} does. However, the paths which lie entirely outside the clip of the
+	 * canvas are skipped. Returns the number of skipped paths.
+	 */
+	public int drawCulled(Canvas canvas, float x, float y, float width, float height) {
+		canvas.save();
+		canvas.translate(x, y);
+		canvas.scale(width, height);
+		final int result = drawCulled(canvas);
+		canvas.restore();
+		return result;
+	}
+	/**
+	 * Determines the bounds of the frame (the union of the bounds of its paths) in exact coordinates, and stores them in the
+	 * passed rectangle. If this frame drawer does not know its bounds, the entire frame is used. Returns whether the bounds are
+	 * not empty.
+	 */
+	public final boolean getBounds(Rect bounds) {
+		if (null == pathBounds) {
+			bounds.set(0, 0, EXACT_SIZE, EXACT_SIZE);
+			return true;
+		}
+		bounds.setEmpty();
+		final int pathCount = paths.length;
+		for (int index = 0; pathCount != index; index++) {
+			final int boundsIndex = index << 2;
+			bounds.union(pathBounds[boundsIndex], pathBounds[boundsIndex + 1],
+					pathBounds[boundsIndex + 2], pathBounds[boundsIndex + 3]);
+		}
+		return false == bounds.isEmpty();
+	}
+	/**
+	 * Maps the passed bounds in exact coordinates to the pixels of a frame drawn transformed according to the passed
+	 * properties, and stores the result in the passed rectangle. The result is rounded outwards, and grown by a pixel on every
+	 * side to account for anti-aliasing. This is the rectangle to invalidate.
+	 */
+	public static final void mapExactBounds(Rect exactBounds, float x, float y, float width, float height, Rect result) {
+		// A negative width or height mirrors the frame, which swaps the edges. Keep the result ordered.
+		final float left = x + exactBounds.left * width / EXACT_SIZE;
+		final float top = y + exactBounds.top * height / EXACT_SIZE;
+		final float right = x + exactBounds.right * width / EXACT_SIZE;
+		final float bottom = y + exactBounds.bottom * height / EXACT_SIZE;
+		result.set((int) Math.floor(Math.min(left, right)) - 1,
+				(int) Math.floor(Math.min(top, bottom)) - 1,
+				(int) Math.ceil(Math.max(left, right)) + 1,
+				(int) Math.ceil(Math.max(top, bottom)) + 1);
+	}
 	/**
 	 * Creates and returns a frame drawer that draws polygons transformed according to the passed properties.
 	 */
 	public FrameDrawer transform(float x, float y, float width, float height) {
 		// Create the transformation matrix.
 		final Matrix transformationMatrix = new Matrix();
-		transformationMatrix.setValues(new float[]{
-				width, 0, x,
-				0, height, y,
-				0, 0, 1
-		});
+		transformationMatrix.setScale(width, height);
+		transformationMatrix.postTranslate(x, y);
 		// Transform the paths.
 		final int pathCount = paths.length;
 		final Path[] transformedPaths = new Path[pathCount];
@@ -51,7 +238,65 @@ public class FrameDrawer {
 			paths[index].transform(transformationMatrix,
 					transformedPaths[index] = new Path());
 		}
-		// Return the new frame drawer with the transformed paths. It shared the paints array. Be careful!
-		return new FrameDrawer(transformedPaths, paints);
+		// Return the new frame drawer with the transformed paths. It shared the paints array. Be careful! The bounds are in
+		// exact coordinates, which the transformation does not affect.
+		return new FrameDrawer(transformedPaths, paints, pathBounds, pathHashes,
+				transformCullingBounds(cullingBounds, x, y, width, height));
+	}
+	/**
+	 * Returns a frame drawer that draws polygons transformed according to the passed properties, like
+	 * {@link #transform(float, float, float, float)} does. The last few transformed frame drawers are kept, so calling this
+	 * method again with the same properties returns the same frame drawer instead of transforming the paths again. Once more
+	 * transformed frame drawers are created than are kept, the oldest one is evicted. This method is not thread-safe.
+	 */
+	public FrameDrawer transformCached(float x, float y, float width, float height) {
+		if (null == transformedDrawers) {
+			transformedDrawers = new FrameDrawer[TRANSFORM_CACHE_SIZE];
+			transformedProperties = new float[TRANSFORM_CACHE_SIZE << 2];
+		} else {
+			for (int index = 0; TRANSFORM_CACHE_SIZE != index; index++) {
+				final int propertiesIndex = index << 2;
+				if (null != transformedDrawers[index] &&
+						x == transformedProperties[propertiesIndex] &&
+						y == transformedProperties[propertiesIndex + 1] &&
+						width == transformedProperties[propertiesIndex + 2] &&
+						height == transformedProperties[propertiesIndex + 3]) {
+					return transformedDrawers[index];
+				}
+			}
+		}
+		// Transform the paths, and keep the result in place of the oldest one.
+		final FrameDrawer result = transform(x, y, width, height);
+		final int propertiesIndex = transformedDrawerNextIndex << 2;
+		transformedProperties[propertiesIndex] = x;
+		transformedProperties[propertiesIndex + 1] = y;
+		transformedProperties[propertiesIndex + 2] = width;
+		transformedProperties[propertiesIndex + 3] = height;
+		transformedDrawers[transformedDrawerNextIndex] = result;
+		transformedDrawerNextIndex = (transformedDrawerNextIndex + 1) % TRANSFORM_CACHE_SIZE;
+		return result;
+	}
+	/**
+	 * Creates and returns the passed bounds of the paths, transformed according to the passed properties. Returns null if the
+	 * passed bounds are null.
+	 */
+	private static final float[] transformCullingBounds(float[] cullingBounds, float x, float y, float width, float height) {
+		if (null == cullingBounds) {
+			return null;
+		}
+		final int boundsLength = cullingBounds.length;
+		final float[] result = new float[boundsLength];
+		for (int index = 0; boundsLength != index; index += 4) {
+			// A negative width or height mirrors the frame, which swaps the edges. Keep the bounds ordered.
+			final float left = x + cullingBounds[index] * width;
+			final float top = y + cullingBounds[index + 1] * height;
+			final float right = x + cullingBounds[index + 2] * width;
+			final float bottom = y + cullingBounds[index + 3] * height;
+			result[index] = Math.min(left, right);
+			result[index + 1] = Math.min(top, bottom);
+			result[index + 2] = Math.max(left, right);
+			result[index + 3] = Math.max(top, bottom);
+		}
+		return result;
 	}
 }
\ No newline at end of file
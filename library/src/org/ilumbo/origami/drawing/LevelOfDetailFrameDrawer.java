@@ -0,0 +1,83 @@
+package org.ilumbo.origami.drawing;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws a frame, like its superclass. However, this frame drawer has several versions of the frame (levels of detail), which
+ * are simplified to increasing tolerances. When the frame is drawn or transformed to a size, the coarsest level of which the
+ * error is at most half a pixel at that size is used. Drawing without a size, computing bounds and such use the level with full
+ * detail.
+ *
+ * Level of detail frame drawers are created by a {@link LevelOfDetailOrigamiDrawerBuilder}.
+ */
+public class LevelOfDetailFrameDrawer extends FrameDrawer {
+	/**
+	 * The size of the frame in exact coordinates.
+	 */
+	private static final int EXACT_SIZE = 0x800;
+	/**
+	 * The largest error of a level, in pixels, for it to be used.
+	 */
+	private static final float MAXIMUM_ERROR = 0.5f;
+	/**
+	 * The frame drawers of the levels, from the one with full detail to the coarsest one.
+	 */
+	private final FrameDrawer[] levels;
+	/**
+	 * For every level, the tolerance it was simplified to in exact units. Zero for the level with full detail.
+	 */
+	private final int[] tolerances;
+	/**
+	 * Creates a level of detail frame drawer with the passed levels, the first of which has full detail, and the tolerances in
+	 * exact units they were simplified to.
+	 */
+	public LevelOfDetailFrameDrawer(FrameDrawer[] levels, int[] tolerances) {
+		super(levels[0]);
+		this.levels = levels;
+		this.tolerances = tolerances;
+	}
+	/**
+	 * Draws the frame to the passed canvas, transformed according to the passed properties, using the level selected for the
+	 * passed size.
+	 */
+	@Override
+	public void draw(Canvas canvas, float x, float y, float width, float height) {
+		selectLevel(width, height).draw(canvas, x, y, width, height);
+	}
+	/**
+	 * Draws the frame to the passed canvas transformed according to the passed properties, skipping the paths which lie
+	 * entirely outside the clip of the canvas, using the level selected for the passed size. Returns the number of skipped
+	 * paths.
+	 */
+	@Override
+	public int drawCulled(Canvas canvas, float x, float y, float width, float height) {
+		return selectLevel(width, height).drawCulled(canvas, x, y, width, height);
+	}
+	/**
+	 * Returns the number of levels, including the one with full detail.
+	 */
+	public final int getLevelCount() {
+		return levels.length;
+	}
+	/**
+	 * Returns the frame drawer of the coarsest level of which the error is at most half a pixel when the frame is drawn at the
+	 * passed size in pixels. The error of a level is its tolerance scaled to the largest of the two dimensions.
+	 */
+	public final FrameDrawer selectLevel(float width, float height) {
+		final float size = Math.max(Math.abs(width), Math.abs(height));
+		for (int index = levels.length - 1; 0 != index; index--) {
+			if (tolerances[index] * size <= MAXIMUM_ERROR * EXACT_SIZE) {
+				return levels[index];
+			}
+		}
+		return levels[0];
+	}
+	/**
+	 * Creates and returns a frame drawer that draws polygons transformed according to the passed properties, using the level
+	 * selected for the passed size.
+	 */
+	@Override
+	public FrameDrawer transform(float x, float y, float width, float height) {
+		return selectLevel(width, height).transform(x, y, width, height);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,266 @@
+package org.ilumbo.origami.drawing;
+
+import java.util.Arrays;
+
+import org.ilumbo.origami.cleaning.PolygonSimplifier;
+import org.ilumbo.origami.reading.ConcurrentOrigamiBuilder;
+
+/**
+ * Builds an origami drawer of which every frame drawer is a {@link LevelOfDetailFrameDrawer}. Besides the level with full
+ * detail, every frame is built at a number of coarser levels. At every coarser level the polygons are simplified using the
+ * {@link PolygonSimplifier} with that level's tolerance, and the polygons of which the bounding box is no wider and no higher
+ * than that tolerance are removed altogether. When drawn at a size at which a level is selected, such polygons would cover
+ * at most half a pixel.
+ *
+ * The paints are shared between the levels. Like with the regular drawer builder, different frames may be built on
+ * different threads at the same time.
+ */
+public final class LevelOfDetailOrigamiDrawerBuilder implements ConcurrentOrigamiBuilder<FrameDrawer[]> {
+	private final class LevelOfDetailFrameBuilder implements FrameBuilder {
+		private final class LevelOfDetailPolygonBuilder implements PolygonBuilder {
+			/**
+			 * The alpha of the fill.
+			 */
+			private int alpha;
+			/**
+			 * The exact x coordinate of the current point.
+			 */
+			private int currentPointX;
+			/**
+			 * The exact y coordinate of the current point.
+			 */
+			private int currentPointY;
+			/**
+			 * The lightness of the fill.
+			 */
+			private int lightness;
+			/**
+			 * The largest exact x coordinate of any line.
+			 */
+			private int maximumX;
+			/**
+			 * The largest exact y coordinate of any line.
+			 */
+			private int maximumY;
+			/**
+			 * The smallest exact x coordinate of any line.
+			 */
+			private int minimumX;
+			/**
+			 * The smallest exact y coordinate of any line.
+			 */
+			private int minimumY;
+			/**
+			 * The exact x coordinate of the point where the current sub-path originated from.
+			 */
+			private int subPathStartPointX;
+			/**
+			 * The exact y coordinate of the point where the current sub-path originated from.
+			 */
+			private int subPathStartPointY;
+			public LevelOfDetailPolygonBuilder() {
+				instructionCount = 0;
+				minimumX = minimumY = Integer.MAX_VALUE;
+				maximumX = maximumY = Integer.MIN_VALUE;
+				// Before any instructions are read, the current point which is the start point of the current sub-path is at
+				// the top-left.
+				currentPointX = currentPointY = subPathStartPointX = subPathStartPointY = 0;
+			}
+			@Override
+			public final void addClose() {
+				// The line back to the start point of the sub-path lies within the bounds already. Subsequent lines start at
+				// that point.
+				currentPointX = subPathStartPointX;
+				currentPointY = subPathStartPointY;
+				addInstruction(INSTRUCTION_TYPE_CLOSE << 24);
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				// Include both ends of the line, as the line might start at the top-left or where a closed sub-path started.
+				include(currentPointX, currentPointY);
+				include(currentPointX = exactX, currentPointY = exactY);
+				addInstruction((INSTRUCTION_TYPE_LINE << 24) | ((exactX & 0xFFF) << 12) | ((exactY & 0xFFF) << 0));
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				include(currentPointX = subPathStartPointX = exactX, currentPointY = subPathStartPointY = exactY);
+				addInstruction((INSTRUCTION_TYPE_MOVE << 24) | ((exactX & 0xFFF) << 12) | ((exactY & 0xFFF) << 0));
+			}
+			@Override
+			public final void build() {
+				final int levelCount = levelFrameBuilders.length;
+				for (int levelIndex = 0; levelCount != levelIndex; levelIndex++) {
+					final PolygonBuilder levelPolygonBuilder;
+					if (0 == levelIndex) {
+						levelPolygonBuilder = levelFrameBuilders[0].createPolygonBuilder();
+					// Remove the polygon from the coarser levels once it is small enough, and simplify it otherwise.
+					} else if (maximumX - minimumX <= tolerances[levelIndex] && maximumY - minimumY <= tolerances[levelIndex]) {
+						break;
+					} else {
+						levelPolygonBuilder = new PolygonSimplifier(levelFrameBuilders[levelIndex].createPolygonBuilder(),
+								tolerances[levelIndex]);
+					}
+					levelPolygonBuilder.setFill(lightness, alpha);
+					replay(levelPolygonBuilder);
+					levelPolygonBuilder.build();
+				}
+			}
+			/**
+			 * Includes the passed point in the bounding box.
+			 */
+			private final void include(int exactX, int exactY) {
+				minimumX = Math.min(minimumX, exactX);
+				minimumY = Math.min(minimumY, exactY);
+				maximumX = Math.max(maximumX, exactX);
+				maximumY = Math.max(maximumY, exactY);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				this.lightness = lightness;
+				this.alpha = alpha;
+			}
+		}
+		/**
+		 * The number of instructions of the current polygon in the array below.
+		 */
+		private int instructionCount;
+		/**
+		 * The instructions of the current polygon, where every instruction is (type << 24) | (exactX << 12) | (exactY << 0).
+		 */
+		private int[] instructions;
+		/**
+		 * For every level, the frame builder of the drawer builder of that level.
+		 */
+		private final FrameBuilder[] levelFrameBuilders;
+		public LevelOfDetailFrameBuilder() {
+			final int levelCount = levelBuilders.length;
+			levelFrameBuilders = new FrameBuilder[levelCount];
+			for (int levelIndex = 0; levelCount != levelIndex; levelIndex++) {
+				levelFrameBuilders[levelIndex] = levelBuilders[levelIndex].createFrameBuilder();
+			}
+			instructions = new int[64];
+		}
+		/**
+		 * Adds the passed packed instruction to the current polygon.
+		 */
+		private final void addInstruction(int instruction) {
+			if (instructions.length == instructionCount) {
+				instructions = Arrays.copyOf(instructions, instructionCount << 1);
+			}
+			instructions[instructionCount++] = instruction;
+		}
+		@Override
+		public final void build() {
+			for (final FrameBuilder levelFrameBuilder : levelFrameBuilders) {
+				levelFrameBuilder.build();
+			}
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return this.new LevelOfDetailPolygonBuilder();
+		}
+		/**
+		 * Pushes the instructions of the current polygon to the passed builder. The build method of the polygon builder is not
+		 * called.
+		 */
+		private final void replay(PolygonBuilder builder) {
+			for (int instructionIndex = 0; instructionCount != instructionIndex; instructionIndex++) {
+				final int instruction = instructions[instructionIndex];
+				final int exactX = (instruction >>> 12) & 0xFFF;
+				final int exactY = (instruction >>> 0) & 0xFFF;
+				switch (instruction >>> 24) {
+				case INSTRUCTION_TYPE_MOVE:
+					builder.addMove(exactX / 2048f, exactY / 2048f, exactX, exactY);
+					break;
+				case INSTRUCTION_TYPE_LINE:
+					builder.addLine(exactX / 2048f, exactY / 2048f, exactX, exactY);
+					break;
+				case INSTRUCTION_TYPE_CLOSE:
+					builder.addClose();
+					break;
+				}
+			}
+		}
+	}
+	/**
+	 * The tolerances of the coarser levels used by the constructor without arguments, in exact units. At half a pixel of error,
+	 * these are selected for frames drawn no larger than 512, 128 and 32 pixels respectively.
+	 */
+	private static final int[] DEFAULT_TOLERANCES = new int[]{2, 8, 32};
+	/**
+	 * The instruction type for closes.
+	 */
+	private static final int INSTRUCTION_TYPE_CLOSE = 2;
+	/**
+	 * The instruction type for lines.
+	 */
+	private static final int INSTRUCTION_TYPE_LINE = 1;
+	/**
+	 * The instruction type for moves.
+	 */
+	private static final int INSTRUCTION_TYPE_MOVE = 0;
+	/**
+	 * For every level, the drawer builder which builds the frame drawers of that level.
+	 */
+	private final OrigamiDrawerBuilder[] levelBuilders;
+	/**
+	 * For every level, the tolerance it is simplified to in exact units. Zero for the level with full detail.
+	 */
+	private final int[] tolerances;
+	/**
+	 * Creates a level of detail drawer builder with three coarser levels besides the one with full detail.
+	 */
+	public LevelOfDetailOrigamiDrawerBuilder() {
+		this(null, DEFAULT_TOLERANCES);
+	}
+	/**
+	 * Creates a level of detail drawer builder which takes its paints from the passed pool (or a pool of its own if the pool is
+	 * null). Besides the level with full detail, there is a coarser level for every passed tolerance in exact units. The
+	 * tolerances must be positive and increasing.
+	 */
+	public LevelOfDetailOrigamiDrawerBuilder(PaintPool paintPool, int[] tolerances) {
+		final int levelCount = tolerances.length + 1;
+		this.tolerances = new int[levelCount];
+		for (int index = 1; levelCount != index; index++) {
+			if ((this.tolerances[index] = tolerances[index - 1]) <= this.tolerances[index - 1]) {
+				throw new IllegalArgumentException("The tolerances must be positive and increasing");
+			}
+		}
+		// Share the paints between the levels, by taking them from one pool.
+		final PaintPool levelPaintPool = null == paintPool ? new PaintPool() : paintPool;
+		levelBuilders = new OrigamiDrawerBuilder[levelCount];
+		for (int levelIndex = 0; levelCount != levelIndex; levelIndex++) {
+			levelBuilders[levelIndex] = new OrigamiDrawerBuilder(levelPaintPool, false);
+		}
+	}
+	@Override
+	public final FrameDrawer[] build() {
+		// Build the frame drawers of every level, and combine those of every frame.
+		final int levelCount = levelBuilders.length;
+		final FrameDrawer[][] levelFrameDrawers = new FrameDrawer[levelCount][];
+		for (int levelIndex = 0; levelCount != levelIndex; levelIndex++) {
+			levelFrameDrawers[levelIndex] = levelBuilders[levelIndex].build();
+		}
+		final int frameCount = levelFrameDrawers[0].length;
+		final FrameDrawer[] result = new FrameDrawer[frameCount];
+		for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+			final FrameDrawer[] levels = new FrameDrawer[levelCount];
+			for (int levelIndex = 0; levelCount != levelIndex; levelIndex++) {
+				levels[levelIndex] = levelFrameDrawers[levelIndex][frameIndex];
+			}
+			result[frameIndex] = new LevelOfDetailFrameDrawer(levels, tolerances);
+		}
+		return result;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		return this.new LevelOfDetailFrameBuilder();
+	}
+	/**
+	 * Returns the number of paths in the frame drawers of the level with the passed index built so far, which is the number of
+	 * draw calls it takes to draw each of those frames once at that level.
+	 */
+	public final int getDrawCallCount(int levelIndex) {
+		return levelBuilders[levelIndex].getDrawCallCount();
+	}
+}
\ No newline at end of file
@@ -1,8 +1,12 @@
 package org.ilumbo.origami.drawing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
-import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.instrumenting.CountingOrigamiBuilder;
+import org.ilumbo.origami.reading.ConcurrentOrigamiBuilder;
+import org.ilumbo.origami.reading.RecyclableOrigamiBuilder;
 
 import android.graphics.Paint;
 import android.graphics.Path;
@@ -10,8 +14,19 @@ import android.util.SparseArray;
 
 /**
  * Builds an origami drawer. An origami drawer is just an array of frame drawers, which draw the frames of the origami.
+ *
+ * Different frames may be built on different threads at the same time.
+ *
+ * The paints can be taken from a {@link PaintPool}, which can be shared by many builders. Optionally, content is deduplicated:
+ * polygons with the same instructions and fill share one path, and frames with the same content share one frame drawer. Content
+ * is looked up by a 64-bit hash, after which the content itself is compared, so different polygons or frames are never shared.
+ *
+ * A drawer builder can be reset and re-used for another document, in which case it keeps the paints it has used. Frame
+ * builders are not re-used, as different frames may be built at the same time.
  */
-public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
+public class OrigamiDrawerBuilder
+		implements ConcurrentOrigamiBuilder<FrameDrawer[]>, CountingOrigamiBuilder<FrameDrawer[]>,
+		RecyclableOrigamiBuilder<FrameDrawer[]> {
 	/**
 	 * Builds a frame drawer.
 	 */
@@ -20,6 +35,10 @@ public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
 		 * Builds a {@link Path}-{@link Paint} combination.
 		 */
 		protected final class PathPaintBuilder implements PolygonBuilder {
+			/**
+			 * The bounds of the polygon in exact coordinates, and its content hash.
+			 */
+			/* package */ final PolygonBounds bounds;
 			/**
 			 * The paint, which is part of the result.
 			 */
@@ -29,40 +48,62 @@ public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
 			 */
 			private final Path path;
 			public PathPaintBuilder() {
-				path = new Path();
+				this(new Path());
 			}
 			public PathPaintBuilder(Path path) {
 				this.path = path;
+				bounds = createPolygonBounds();
 			}
 			@Override
 			public final void addClose() {
+				bounds.includeClose();
 				path.close();
 			}
 			@Override
 			public final void addLine(float x, float y, int exactX, int exactY) {
+				bounds.includeLine(exactX, exactY);
 				path.lineTo(x, y);
 			}
 			@Override
 			public final void addMove(float x, float y, int exactX, int exactY) {
+				bounds.includeMove(exactX, exactY);
 				path.moveTo(x, y);
 			}
 			@Override
 			public final void build() {
-				paintList.add(paint);
-				pathList.add(path);
+				addPath(path, paint, bounds);
 			}
 			@Override
 			public final void setFill(int lightness, int alpha) {
 				paint = getSharedPaint(lightness, alpha);
+				bounds.includeFill(paint.getColor());
 			}
 			/**
 			 * If you already know the paint instance which will be returned getSharedPaint, might as well call this method
 			 * directly.
 			 */
 			protected final void setFill(Paint paint) {
+				bounds.includeFill(paint.getColor());
 				this.paint = paint;
 			}
 		}
+		/**
+		 * The index of the resulting frame drawer in the frame drawer list.
+		 */
+		private final int frameIndex;
+		/**
+		 * For every path in the path list, its bounds as (minimumX, minimumY, maximumX, maximumY) in exact coordinates.
+		 */
+		/* package */ int[] pathBounds;
+		/**
+		 * For every path in the path list, its content as returned by {@link PolygonBounds#getContent}. Null if content is not
+		 * deduplicated.
+		 */
+		/* package */ final ArrayList<int[]> pathContents;
+		/**
+		 * For every path in the path list, the hash of its content.
+		 */
+		/* package */ long[] pathHashes;
 		/**
 		 * The paints that will appear in the resulting frame drawer. This list is a sibeling of the one below. A paint with an
 		 * index should be used with the path with that same index.
@@ -76,6 +117,38 @@ public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
 		public FrameDrawerBuilder() {
 			paintList = new ArrayList<Paint>(8);
 			pathList = new ArrayList<Path>(8);
+			pathBounds = new int[32];
+			pathHashes = new long[8];
+			pathContents = null == sharedPaths && null == sharedFrameDrawers ? null : new ArrayList<int[]>(8);
+			// Reserve a spot in the frame drawer list, so the frames end up in the order in which their builders were created
+			// even if they are built in another order.
+			synchronized (frameDrawerList) {
+				frameIndex = frameDrawerList.size();
+				frameDrawerList.add(null);
+			}
+		}
+		/**
+		 * Adds the passed path and paint to the lists, along with the passed bounds and content hash.
+		 */
+		/* package */ final void addPath(Path path, Paint paint, PolygonBounds bounds) {
+			final int pathIndex = pathList.size();
+			if (pathHashes.length == pathIndex) {
+				pathHashes = Arrays.copyOf(pathHashes, pathIndex << 1);
+				pathBounds = Arrays.copyOf(pathBounds, pathIndex << 3);
+			}
+			bounds.copyTo(pathBounds, pathIndex << 2);
+			pathHashes[pathIndex] = bounds.getHash();
+			paintList.add(paint);
+			final int[] content = null == pathContents ? null : bounds.getContent();
+			if (null != pathContents) {
+				pathContents.add(content);
+			}
+			// If a polygon with the same content has been built before, use its path instead.
+			if (null == sharedPaths) {
+				pathList.add(path);
+			} else {
+				pathList.add(getSharedPath(path, bounds.getHash(), content));
+			}
 		}
 		@Override
 		public final void build() {
@@ -84,38 +157,154 @@ public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
 			paths = pathList.toArray(paths);
 			Paint[] paints = new Paint[paintList.size()];
 			paints = paintList.toArray(paints);
-			frameDrawerList.add(new FrameDrawer(paths, paints));
+			FrameDrawer frameDrawer = new FrameDrawer(paths, paints,
+					Arrays.copyOf(pathBounds, paths.length << 2), Arrays.copyOf(pathHashes, paths.length));
+			// If a frame with the same content has been built before, use its frame drawer instead.
+			if (null != sharedFrameDrawers) {
+				long frameHash = paths.length;
+				for (int index = 0; paths.length != index; index++) {
+					frameHash = PolygonBounds.combineHashes(frameHash, pathHashes[index]);
+				}
+				frameDrawer = getSharedFrameDrawer(frameDrawer, frameHash, createFrameContent());
+			}
+			synchronized (frameDrawerList) {
+				frameDrawerList.set(frameIndex, frameDrawer);
+			}
+		}
+		/**
+		 * Returns the content of the frame, which is the length of the content of every path followed by that content.
+		 */
+		private final int[] createFrameContent() {
+			int length = 0;
+			for (final int[] pathContent : pathContents) {
+				length += 1 + pathContent.length;
+			}
+			final int[] result = new int[length];
+			int index = 0;
+			for (final int[] pathContent : pathContents) {
+				result[index++] = pathContent.length;
+				System.arraycopy(pathContent, 0, result, index, pathContent.length);
+				index += pathContent.length;
+			}
+			return result;
 		}
 		@Override
 		public PolygonBuilder createPolygonBuilder() {
 			return this.new PathPaintBuilder();
 		}
+		/**
+		 * Merges the passed bounds and content hash into those of the path at the passed index, after a polygon has been
+		 * added to that path.
+		 */
+		/* package */ final void mergeIntoPath(int pathIndex, PolygonBounds bounds) {
+			bounds.mergeInto(pathBounds, pathIndex << 2);
+			pathHashes[pathIndex] = PolygonBounds.combineHashes(pathHashes[pathIndex], bounds.getHash());
+			if (null != pathContents) {
+				final int[] pathContent = pathContents.get(pathIndex);
+				final int[] content = bounds.getContent();
+				final int[] mergedContent = Arrays.copyOf(pathContent, pathContent.length + content.length);
+				System.arraycopy(content, 0, mergedContent, pathContent.length, content.length);
+				pathContents.set(pathIndex, mergedContent);
+			}
+		}
 	}
+	/**
+	 * Something that has been built, along with the content it was built from.
+	 */
+	private static final class SharedContent<T> {
+		/**
+		 * The content.
+		 */
+		public final int[] content;
+		/**
+		 * The thing that was built from the content.
+		 */
+		public final T value;
+		public SharedContent(T value, int[] content) {
+			this.value = value;
+			this.content = content;
+		}
+	}
+	/**
+	 * The number of frames for which the frame drawer of an earlier frame with the same content was used.
+	 */
+	private int deduplicatedFrameCount;
+	/**
+	 * The number of polygons for which the path of an earlier polygon with the same content was used.
+	 */
+	private int deduplicatedPolygonCount;
 	/**
 	 * The frame drawers that are the result of the building.
 	 */
 	/* package */ final ArrayList<FrameDrawer> frameDrawerList;
 	/**
-	 * The paints that have been created, where the key is (lightness << 8) | (alpha << 0).
+	 * The number of times a shared paint was requested which had been created before.
+	 */
+	private int paintCacheHitCount;
+	/**
+	 * The number of times a shared paint was requested which had to be created.
+	 */
+	private int paintCacheMissCount;
+	/**
+	 * The pool the paints are taken from, or null if this builder creates its own paints.
+	 */
+	private final PaintPool paintPool;
+	/**
+	 * The frame drawers that have been built along with their content, where the key is the hash of that content. Null if
+	 * frames are not deduplicated.
+	 */
+	private final HashMap<Long, SharedContent<FrameDrawer>> sharedFrameDrawers;
+	/**
+	 * The paints that have been used, where the key is (lightness << 8) | (alpha << 0).
 	 */
 	private final SparseArray<Paint> sharedPaints;
+	/**
+	 * The paths that have been built along with the content of their polygon, where the key is the hash of that content. Null
+	 * if polygons are not deduplicated.
+	 */
+	private final HashMap<Long, SharedContent<Path>> sharedPaths;
+	/**
+	 * Creates an origami drawer builder which creates its own paints, and does not deduplicate content.
+	 */
 	public OrigamiDrawerBuilder() {
+		this(null, false, false);
+	}
+	/**
+	 * Creates an origami drawer builder which takes its paints from the passed pool (or creates its own paints if the pool is
+	 * null). If deduplicate is true, polygons with the same content share one path and frames with the same content share one
+	 * frame drawer.
+	 */
+	public OrigamiDrawerBuilder(PaintPool paintPool, boolean deduplicate) {
+		this(paintPool, deduplicate, deduplicate);
+	}
+	/* package */ OrigamiDrawerBuilder(PaintPool paintPool, boolean deduplicatePolygons, boolean deduplicateFrames) {
+		this.paintPool = paintPool;
 		frameDrawerList = new ArrayList<FrameDrawer>(8);
 		sharedPaints = new SparseArray<Paint>(16);
+		sharedPaths = deduplicatePolygons ? new HashMap<Long, SharedContent<Path>>(64) : null;
+		sharedFrameDrawers = deduplicateFrames ? new HashMap<Long, SharedContent<FrameDrawer>>(16) : null;
 	}
 	@Override
 	public final FrameDrawer[] build() {
 		// Convert the list to an array.
-		FrameDrawer[] frameDrawers = new FrameDrawer[frameDrawerList.size()];
-		frameDrawers = frameDrawerList.toArray(frameDrawers);
-		return frameDrawers;
+		synchronized (frameDrawerList) {
+			FrameDrawer[] frameDrawers = new FrameDrawer[frameDrawerList.size()];
+			frameDrawers = frameDrawerList.toArray(frameDrawers);
+			return frameDrawers;
+		}
 	}
 	@Override
 	public FrameBuilder createFrameBuilder() {
 		return this.new FrameDrawerBuilder();
 	}
 	/**
-	 * Creates a paint with the passed lightness and alpha.
+	 * Creates the bounds for a polygon, which keep the content of the polygon if content is deduplicated.
+	 */
+	/* package */ final PolygonBounds createPolygonBounds() {
+		return new PolygonBounds(null != sharedPaths || null != sharedFrameDrawers);
+	}
+	/**
+	 * Creates a paint with the passed lightness and alpha. Not called if the paints are taken from a pool.
 	 */
 	protected Paint createPaint(int lightness, int alpha) {
 		final Paint result = new Paint();
@@ -126,16 +315,150 @@ public class OrigamiDrawerBuilder implements OrigamiBuilder<FrameDrawer[]> {
 		return result;
 	}
 	/**
-	 * Returns the shared paint with the passed lightness and alpha that was previously created, or creates a new paint and
-	 * returns that.
+	 * Returns the number of paths in the frame drawers built so far, which is the number of draw calls it takes to draw each of
+	 * those frames once.
+	 */
+	public final int getDrawCallCount() {
+		int result = 0;
+		synchronized (frameDrawerList) {
+			for (final FrameDrawer frameDrawer : frameDrawerList) {
+				if (null != frameDrawer) {
+					result += frameDrawer.paths.length;
+				}
+			}
+		}
+		return result;
+	}
+	/**
+	 * Returns the number of frames built so far for which the frame drawer of an earlier frame with the same content was used.
+	 */
+	public final int getDeduplicatedFrameCount() {
+		if (null == sharedFrameDrawers) {
+			return 0;
+		}
+		synchronized (sharedFrameDrawers) {
+			return deduplicatedFrameCount;
+		}
+	}
+	/**
+	 * Returns the number of polygons built so far for which the path of an earlier polygon with the same content was used.
+	 */
+	public final int getDeduplicatedPolygonCount() {
+		if (null == sharedPaths) {
+			return 0;
+		}
+		synchronized (sharedPaths) {
+			return deduplicatedPolygonCount;
+		}
+	}
+	/**
+	 * Returns the number of times a shared paint was requested which had been created before.
+	 */
+	@Override
+	public final int getPaintCacheHitCount() {
+		synchronized (sharedPaints) {
+			return paintCacheHitCount;
+		}
+	}
+	/**
+	 * Returns the number of times a shared paint was requested which had to be created, which is the number of distinct fills
+	 * seen so far.
+	 */
+	@Override
+	public final int getPaintCacheMissCount() {
+		synchronized (sharedPaints) {
+			return paintCacheMissCount;
+		}
+	}
+	/**
+	 * Returns -1, as a drawer builder does not look for redundant instructions.
+	 */
+	@Override
+	public final int getRedundantInstructionCount() {
+		return -1;
+	}
+	/**
+	 * Returns the frame drawer built before for a frame with the passed content, or the passed frame drawer if there is no such
+	 * frame drawer yet. The hash is the hash of the content. This method is thread-safe.
+	 */
+	private final FrameDrawer getSharedFrameDrawer(FrameDrawer frameDrawer, long hash, int[] content) {
+		final Long key = hash;
+		synchronized (sharedFrameDrawers) {
+			final SharedContent<FrameDrawer> result = sharedFrameDrawers.get(key);
+			if (null == result) {
+				sharedFrameDrawers.put(key, new SharedContent<FrameDrawer>(frameDrawer, content));
+				return frameDrawer;
+			}
+			// Different content can have the same hash. Only share the frame drawer if the content is the same.
+			if (false == Arrays.equals(result.content, content)) {
+				return frameDrawer;
+			}
+			deduplicatedFrameCount++;
+			return result.value;
+		}
+	}
+	/**
+	 * Returns the shared paint with the passed lightness and alpha that was previously used, or takes a paint from the pool
+	 * (or creates a new paint) and returns that. This method is thread-safe.
 	 */
 	/* package */ final Paint getSharedPaint(int lightness, int alpha) {
 		final int key = (lightness << 8) | (alpha << 0);
-		Paint result = sharedPaints.get(key);
-		if (null == result) {
-			sharedPaints.put(key,
-					result = createPaint(lightness, alpha));
+		synchronized (sharedPaints) {
+			Paint result = sharedPaints.get(key);
+			if (null == result) {
+				sharedPaints.put(key,
+						result = null == paintPool ? createPaint(lightness, alpha) : paintPool.getPaint(lightness, alpha));
+				paintCacheMissCount++;
+			} else {
+				paintCacheHitCount++;
+			}
+			return result;
+		}
+	}
+	/**
+	 * Returns the path built before for a polygon with the passed content, or the passed path if there is no such path yet. The
+	 * hash is the hash of the content. This method is thread-safe.
+	 */
+	private final Path getSharedPath(Path path, long hash, int[] content) {
+		final Long key = hash;
+		synchronized (sharedPaths) {
+			final SharedContent<Path> result = sharedPaths.get(key);
+			if (null == result) {
+				sharedPaths.put(key, new SharedContent<Path>(path, content));
+				return path;
+			}
+			// Different content can have the same hash. Only share the path if the content is the same.
+			if (false == Arrays.equals(result.content, content)) {
+				return path;
+			}
+			deduplicatedPolygonCount++;
+			return result.value;
+		}
+	}
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The paints that have been used are kept, as they can be shared with the frame drawers of the next document.
+	 */
+	@Override
+	public final void reset() {
+		synchronized (frameDrawerList) {
+			frameDrawerList.clear();
+		}
+		synchronized (sharedPaints) {
+			paintCacheHitCount = paintCacheMissCount = 0;
+		}
+		if (null != sharedPaths) {
+			synchronized (sharedPaths) {
+				sharedPaths.clear();
+				deduplicatedPolygonCount = 0;
+			}
+		}
+		if (null != sharedFrameDrawers) {
+			synchronized (sharedFrameDrawers) {
+				sharedFrameDrawers.clear();
+				deduplicatedFrameCount = 0;
+			}
 		}
-		return result;
 	}
 }
\ No newline at end of file
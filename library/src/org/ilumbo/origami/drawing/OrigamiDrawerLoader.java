@@ -0,0 +1,222 @@
+package org.ilumbo.origami.drawing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.reading.OrigamiReader;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+
+/**
+ * Loads origami drawers in the background. The document is read on an executor, and every frame drawer is passed to a
+ * listener as soon as its frame has been built. This way, the first frame can be shown while the rest of the document is
+ * still being read.
+ *
+ * Loading can be cancelled through the returned future. Reading then stops at the next frame or polygon, and the listener is
+ * not called again once cancel has returned. (A frame which is being passed to the listener while loading is cancelled makes
+ * cancel wait for the listener to return, so the listener should not wait for the thread that cancels.)
+ *
+ * An origami drawer loader does not have any internal state that would make it unsafe to re-use when loading multiple
+ * documents, even at the same time.
+ */
+public class OrigamiDrawerLoader {
+	/**
+	 * Receives the frame drawers as they are loaded. The methods are called on the thread that reads the document.
+	 */
+	public interface Listener {
+		/**
+		 * Called once the frame with the passed index has been loaded. Frames are loaded in order.
+		 */
+		public void onFrameLoaded(int frameIndex, FrameDrawer frameDrawer);
+		/**
+		 * Called once every frame has been loaded. The passed frame drawers are also the result of the future.
+		 */
+		public void onLoadCompleted(FrameDrawer[] frameDrawers);
+		/**
+		 * Called if loading fails. The passed throwable is the cause of the execution exception thrown by the future.
+		 */
+		public void onLoadFailed(Throwable cause);
+	}
+	/**
+	 * Loads one document, and calls the listener once it is done.
+	 */
+	private static final class LoadTask extends FutureTask<FrameDrawer[]> {
+		/**
+		 * The listener which receives the frame drawers.
+		 */
+		private final Listener listener;
+		public LoadTask(Callable<FrameDrawer[]> callable, Listener listener) {
+			super(callable);
+			this.listener = listener;
+		}
+		/**
+		 * {@inheritDoc}
+		 *
+		 * Cancelling cannot happen while a frame drawer is being passed to the listener.
+		 */
+		@Override
+		public final synchronized boolean cancel(boolean mayInterruptIfRunning) {
+			return super.cancel(mayInterruptIfRunning);
+		}
+		@Override
+		protected final void done() {
+			if (isCancelled()) {
+				return;
+			}
+			try {
+				listener.onLoadCompleted(get());
+			} catch (ExecutionException exception) {
+				listener.onLoadFailed(exception.getCause());
+			// As this task is done, getting the result does not block, and can therefore not be interrupted.
+			} catch (InterruptedException exception) {
+				throw new RuntimeException(exception);
+			}
+		}
+		/**
+		 * Passes the passed frame drawer to the listener, unless this task has been cancelled. Holds the same lock as cancel,
+		 * so the listener is not called once cancel has returned.
+		 */
+		public final synchronized void publishFrame(int frameIndex, FrameDrawer frameDrawer) {
+			if (false == isCancelled()) {
+				listener.onFrameLoaded(frameIndex, frameDrawer);
+			}
+		}
+	}
+	/**
+	 * Passes the document on to a drawer builder, and the frame drawers built by that builder on to the listener.
+	 */
+	private static final class PublishingOrigamiBuilder implements OrigamiBuilder<FrameDrawer[]> {
+		/**
+		 * Passes the frame on to a frame builder of the drawer builder, and publishes the resulting frame drawer.
+		 */
+		private final class PublishingFrameBuilder implements FrameBuilder {
+			/**
+			 * The index of the frame.
+			 */
+			private final int frameIndex;
+			/**
+			 * The frame builder of the drawer builder.
+			 */
+			private final FrameBuilder target;
+			public PublishingFrameBuilder(FrameBuilder target, int frameIndex) {
+				this.target = target;
+				this.frameIndex = frameIndex;
+			}
+			@Override
+			public final void build() {
+				target.build();
+				final FrameDrawer frameDrawer;
+				synchronized (drawerBuilder.frameDrawerList) {
+					frameDrawer = drawerBuilder.frameDrawerList.get(frameIndex);
+				}
+				task.publishFrame(frameIndex, frameDrawer);
+			}
+			@Override
+			public final PolygonBuilder createPolygonBuilder() {
+				throwIfCancelled();
+				return target.createPolygonBuilder();
+			}
+		}
+		/**
+		 * The drawer builder which builds the frame drawers.
+		 */
+		private final OrigamiDrawerBuilder drawerBuilder;
+		/**
+		 * The listener which receives the frame drawers.
+		 */
+		private final Listener listener;
+		/**
+		 * The task which reads the document into this builder. Set before that task is executed.
+		 */
+		private LoadTask task;
+		public PublishingOrigamiBuilder(OrigamiDrawerBuilder drawerBuilder, Listener listener) {
+			this.drawerBuilder = drawerBuilder;
+			this.listener = listener;
+		}
+		@Override
+		public final FrameDrawer[] build() {
+			throwIfCancelled();
+			return drawerBuilder.build();
+		}
+		@Override
+		public final FrameBuilder createFrameBuilder() {
+			throwIfCancelled();
+			// The drawer builder puts the frame drawer at the index which equals the number of frames before it.
+			final int frameIndex;
+			synchronized (drawerBuilder.frameDrawerList) {
+				frameIndex = drawerBuilder.frameDrawerList.size();
+			}
+			return this.new PublishingFrameBuilder(drawerBuilder.createFrameBuilder(), frameIndex);
+		}
+		/**
+		 * Throws a cancellation exception if the task has been cancelled, which stops the reader.
+		 */
+		private final void throwIfCancelled() {
+			if (task.isCancelled()) {
+				throw new CancellationException();
+			}
+		}
+	}
+	/**
+	 * The executor on which the documents are read.
+	 */
+	private final Executor executor;
+	/**
+	 * The reader which reads the documents.
+	 */
+	private final OrigamiReader reader;
+	/**
+	 * Creates a loader which reads documents using the passed reader (typically a
+	 * {@link org.ilumbo.origami.reading.ScanningOrigamiReader}) on the passed executor.
+	 */
+	public OrigamiDrawerLoader(OrigamiReader reader, Executor executor) {
+		this.reader = reader;
+		this.executor = executor;
+	}
+	/**
+	 * Starts loading the document from the passed buffer, from its position up to its limit, into the passed drawer builder
+	 * (which must not have built any frames yet). The position and limit of the buffer are not changed. The frame drawers are
+	 * passed to the passed listener as they are loaded. The returned future can be used to cancel loading, or to wait for it.
+	 */
+	public final Future<FrameDrawer[]> load(ByteBuffer buffer, OrigamiDrawerBuilder drawerBuilder, Listener listener) {
+		final ByteBuffer documentBuffer = buffer.duplicate();
+		final PublishingOrigamiBuilder builder = new PublishingOrigamiBuilder(drawerBuilder, listener);
+		return start(builder, new Callable<FrameDrawer[]>() {
+			@Override
+			public final FrameDrawer[] call() throws OrigamiDocumentFormatException, IOException {
+				return (FrameDrawer[]) reader.read(documentBuffer, builder);
+			}
+		});
+	}
+	/**
+	 * Starts loading the document from the passed input stream into the passed drawer builder (which must not have built any
+	 * frames yet). The frame drawers are passed to the passed listener as they are loaded. The returned future can be used to
+	 * cancel loading, or to wait for it.
+	 */
+	public final Future<FrameDrawer[]> load(final InputStream inputStream, OrigamiDrawerBuilder drawerBuilder,
+			Listener listener) {
+		final PublishingOrigamiBuilder builder = new PublishingOrigamiBuilder(drawerBuilder, listener);
+		return start(builder, new Callable<FrameDrawer[]>() {
+			@Override
+			public final FrameDrawer[] call() throws OrigamiDocumentFormatException, IOException {
+				return (FrameDrawer[]) reader.read(inputStream, builder);
+			}
+		});
+	}
+	/**
+	 * Creates a task which calls the passed callable, which reads into the passed builder, and executes it.
+	 */
+	private final Future<FrameDrawer[]> start(PublishingOrigamiBuilder builder, Callable<FrameDrawer[]> callable) {
+		final LoadTask result = new LoadTask(callable, builder.listener);
+		builder.task = result;
+		executor.execute(result);
+		return result;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.ilumbo.origami.drawing;
+
+import android.graphics.Paint;
+import android.util.SparseArray;
+
+/**
+ * A pool of paints which can be shared by any number of origami drawer builders, even across documents, so every fill is
+ * represented by a single paint. A paint pool is thread-safe.
+ *
+ * The paints handed out by a pool must not be changed, as they may be used by many frame drawers.
+ */
+public class PaintPool {
+	/**
+	 * The paints that have been created, where the key is (lightness << 8) | (alpha << 0).
+	 */
+	private final SparseArray<Paint> paints;
+	public PaintPool() {
+		paints = new SparseArray<Paint>(16);
+	}
+	/**
+	 * Creates a paint with the passed lightness and alpha.
+	 */
+	protected Paint createPaint(int lightness, int alpha) {
+		final Paint result = new Paint();
+		result.setColor((alpha << 24) |
+				(lightness << 16) |
+				(lightness << 8) |
+				(lightness << 0));
+		return result;
+	}
+	/**
+	 * Returns the paint with the passed lightness and alpha that was previously created, or creates a new paint and returns
+	 * that.
+	 */
+	public final Paint getPaint(int lightness, int alpha) {
+		final int key = (lightness << 8) | (alpha << 0);
+		synchronized (paints) {
+			Paint result = paints.get(key);
+			if (null == result) {
+				paints.put(key,
+						result = createPaint(lightness, alpha));
+			}
+			return result;
+		}
+	}
+	/**
+	 * Returns the number of paints in this pool.
+	 */
+	public final int getPaintCount() {
+		synchronized (paints) {
+			return paints.size();
+		}
+	}
+}
\ No newline at end of file
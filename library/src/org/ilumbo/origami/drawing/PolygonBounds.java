@@ -0,0 +1,183 @@
+package org.ilumbo.origami.drawing;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the bounds of a polygon in exact coordinates while it is being built, along with a hash of its content (its
+ * fill and its instructions). Two polygons with the same content have the same hash. Optionally, the content itself is kept as
+ * well, so polygons with the same hash can be compared.
+ */
+/* package */ final class PolygonBounds {
+	/**
+	 * The value mixed into the hash for a "close" instruction.
+	 */
+	private static final int CLOSE = 2 << 24;
+	/**
+	 * The value mixed into the hash before the colour of the fill. As this value is not an instruction, the colour which
+	 * follows it cannot be mistaken for one.
+	 */
+	private static final int FILL = 3 << 24;
+	/**
+	 * The value the hash starts at.
+	 */
+	private static final long HASH_OFFSET = 0xCBF29CE484222325L;
+	/**
+	 * The prime the hash is multiplied by for every value mixed into it.
+	 */
+	private static final long HASH_PRIME = 0x100000001B3L;
+	/**
+	 * The value mixed into the hash for a "line" instruction, combined with the coordinates.
+	 */
+	private static final int LINE = 1 << 24;
+	/**
+	 * The value mixed into the hash for a "move" instruction, combined with the coordinates.
+	 */
+	private static final int MOVE = 0 << 24;
+	/**
+	 * The content so far, where every value is one that was mixed into the hash. Null if the content is not kept.
+	 */
+	private int[] content;
+	/**
+	 * The number of values in the array above.
+	 */
+	private int contentLength;
+	/**
+	 * The hash of the content so far.
+	 */
+	private long hash;
+	/**
+	 * The largest exact x coordinate of the polygon.
+	 */
+	private int maximumX;
+	/**
+	 * The largest exact y coordinate of the polygon.
+	 */
+	private int maximumY;
+	/**
+	 * The smallest exact x coordinate of the polygon.
+	 */
+	private int minimumX;
+	/**
+	 * The smallest exact y coordinate of the polygon.
+	 */
+	private int minimumY;
+	public PolygonBounds() {
+		this(false);
+	}
+	/**
+	 * Creates polygon bounds which keep the content if keep content is true.
+	 */
+	public PolygonBounds(boolean keepContent) {
+		if (keepContent) {
+			content = new int[32];
+		}
+		hash = HASH_OFFSET;
+		minimumX = minimumY = Integer.MAX_VALUE;
+		maximumX = maximumY = Integer.MIN_VALUE;
+	}
+	/**
+	 * Returns the hash of content that consists of the content with the first passed hash followed by the content with the
+	 * second passed hash.
+	 */
+	public static final long combineHashes(long firstHash, long secondHash) {
+		return firstHash * HASH_PRIME + secondHash;
+	}
+	/**
+	 * Copies the bounds to the passed array at the passed index, as (minimumX, minimumY, maximumX, maximumY).
+	 */
+	public final void copyTo(int[] array, int index) {
+		array[index] = minimumX;
+		array[index + 1] = minimumY;
+		array[index + 2] = maximumX;
+		array[index + 3] = maximumY;
+	}
+	/**
+	 * Returns the content so far as an array of values, two arrays of which are equal if and only if the content is the same.
+	 * Only available if the content is kept.
+	 */
+	public final int[] getContent() {
+		return Arrays.copyOf(content, contentLength);
+	}
+	/**
+	 * Returns the hash of the content so far.
+	 */
+	public final long getHash() {
+		return hash;
+	}
+	/**
+	 * Extends the bounds to include the passed point.
+	 */
+	private final void include(int exactX, int exactY) {
+		minimumX = Math.min(minimumX, exactX);
+		minimumY = Math.min(minimumY, exactY);
+		maximumX = Math.max(maximumX, exactX);
+		maximumY = Math.max(maximumY, exactY);
+	}
+	/**
+	 * Includes a "close" instruction.
+	 */
+	public final void includeClose() {
+		mix(CLOSE);
+	}
+	/**
+	 * Includes the fill, as the colour of the paint.
+	 */
+	public final void includeFill(int color) {
+		mix(FILL);
+		mix(color);
+	}
+	/**
+	 * Includes a "line" instruction to the passed point.
+	 */
+	public final void includeLine(int exactX, int exactY) {
+		// If the polygon starts with a line, that line starts at the top-left.
+		if (isEmpty()) {
+			include(0, 0);
+		}
+		include(exactX, exactY);
+		mix(LINE | (exactX << 12) | exactY);
+	}
+	/**
+	 * Includes a "move" instruction to the passed point.
+	 */
+	public final void includeMove(int exactX, int exactY) {
+		include(exactX, exactY);
+		mix(MOVE | (exactX << 12) | exactY);
+	}
+	/**
+	 * Returns whether no points have been included.
+	 */
+	public final boolean isEmpty() {
+		return minimumX > maximumX;
+	}
+	/**
+	 * Extends the bounds in the passed array at the passed index, which are in the form copyTo writes them in, to include these
+	 * bounds.
+	 */
+	public final void mergeInto(int[] array, int index) {
+		array[index] = Math.min(array[index], minimumX);
+		array[index + 1] = Math.min(array[index + 1], minimumY);
+		array[index + 2] = Math.max(array[index + 2], maximumX);
+		array[index + 3] = Math.max(array[index + 3], maximumY);
+	}
+	/**
+	 * Returns whether these bounds overlap the bounds in the passed array at the passed index, which are in the form copyTo
+	 * writes them in. Bounds that merely touch do not overlap.
+	 */
+	public final boolean overlaps(int[] array, int index) {
+		return minimumX < array[index + 2] && array[index] < maximumX &&
+				minimumY < array[index + 3] && array[index + 1] < maximumY;
+	}
+	/**
+	 * Mixes the passed value into the hash.
+	 */
+	private final void mix(int value) {
+		if (null != content) {
+			if (content.length == contentLength) {
+				content = Arrays.copyOf(content, contentLength << 1);
+			}
+			content[contentLength++] = value;
+		}
+		hash = (hash ^ value) * HASH_PRIME;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package org.ilumbo.origami.geometry;
+
+import java.util.Arrays;
+
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
+
+/**
+ * Collects the edges of a polygon, in exact coordinates. The instructions are interpreted the way a path is filled: every
+ * sub-path is closed, whether it ends with a "close" instruction or not. Edges without length are left out. The fill is
+ * ignored.
+ *
+ * Edges can be collected for one polygon after another, by calling {@link #clear()} in between. Once the build method has been
+ * called, the edges of the polygon are complete.
+ */
+public final class PolygonEdges implements PolygonBuilder {
+	/**
+	 * The exact x coordinate of the point that is last "move"d or "line"d to.
+	 */
+	private int currentPointX;
+	/**
+	 * The exact y coordinate of the point that is last "move"d or "line"d to.
+	 */
+	private int currentPointY;
+	/**
+	 * The number of edges in the array below.
+	 */
+	private int edgeCount;
+	/**
+	 * The edges, as (startX, startY, endX, endY) quadruples.
+	 */
+	private int[] edges;
+	/**
+	 * The largest exact x coordinate of any edge.
+	 */
+	private int maximumX;
+	/**
+	 * The largest exact y coordinate of any edge.
+	 */
+	private int maximumY;
+	/**
+	 * The smallest exact x coordinate of any edge.
+	 */
+	private int minimumX;
+	/**
+	 * The smallest exact y coordinate of any edge.
+	 */
+	private int minimumY;
+	/**
+	 * The exact x coordinate of the point where the current sub-path originated from.
+	 */
+	private int subPathStartPointX;
+	/**
+	 * The exact y coordinate of the point where the current sub-path originated from.
+	 */
+	private int subPathStartPointY;
+	public PolygonEdges() {
+		edges = new int[64];
+		clear();
+	}
+	@Override
+	public final void addClose() {
+		addEdge(subPathStartPointX, subPathStartPointY);
+	}
+	/**
+	 * Adds an edge from the current point to the passed point, unless they are the same, and makes the passed point the current
+	 * one.
+	 */
+	private final void addEdge(int exactX, int exactY) {
+		if (currentPointX == exactX && currentPointY == exactY) {
+			return;
+		}
+		if (edges.length == edgeCount << 2) {
+			edges = Arrays.copyOf(edges, edgeCount << 3);
+		}
+		final int index = edgeCount++ << 2;
+		edges[index] = currentPointX;
+		edges[index + 1] = currentPointY;
+		edges[index + 2] = exactX;
+		edges[index + 3] = exactY;
+		minimumX = Math.min(minimumX, Math.min(currentPointX, exactX));
+		minimumY = Math.min(minimumY, Math.min(currentPointY, exactY));
+		maximumX = Math.max(maximumX, Math.max(currentPointX, exactX));
+		maximumY = Math.max(maximumY, Math.max(currentPointY, exactY));
+		currentPointX = exactX;
+		currentPointY = exactY;
+	}
+	@Override
+	public final void addLine(float x, float y, int exactX, int exactY) {
+		addEdge(exactX, exactY);
+	}
+	@Override
+	public final void addMove(float x, float y, int exactX, int exactY) {
+		// Close the current sub-path, and start a new one.
+		addEdge(subPathStartPointX, subPathStartPointY);
+		currentPointX = subPathStartPointX = exactX;
+		currentPointY = subPathStartPointY = exactY;
+	}
+	@Override
+	public final void build() {
+		// Close the last sub-path.
+		addEdge(subPathStartPointX, subPathStartPointY);
+	}
+	/**
+	 * Removes all of the edges, so the edges of another polygon can be collected.
+	 */
+	public final void clear() {
+		edgeCount = 0;
+		minimumX = minimumY = Integer.MAX_VALUE;
+		maximumX = maximumY = Integer.MIN_VALUE;
+		// Before any instructions are read, the current point which is the start point of the current sub-path is at the
+		// top-left.
+		currentPointX = currentPointY = subPathStartPointX = subPathStartPointY = 0;
+	}
+	/**
+	 * Returns the number of edges.
+	 */
+	public final int getEdgeCount() {
+		return edgeCount;
+	}
+	/**
+	 * Returns the exact x coordinate of the end of the edge with the passed index.
+	 */
+	public final int getEndX(int index) {
+		return edges[(index << 2) + 2];
+	}
+	/**
+	 * Returns the exact y coordinate of the end of the edge with the passed index.
+	 */
+	public final int getEndY(int index) {
+		return edges[(index << 2) + 3];
+	}
+	/**
+	 * Returns the largest exact x coordinate of any edge. Only meaningful if there are edges.
+	 */
+	public final int getMaximumX() {
+		return maximumX;
+	}
+	/**
+	 * Returns the largest exact y coordinate of any edge. Only meaningful if there are edges.
+	 */
+	public final int getMaximumY() {
+		return maximumY;
+	}
+	/**
+	 * Returns the smallest exact x coordinate of any edge. Only meaningful if there are edges.
+	 */
+	public final int getMinimumX() {
+		return minimumX;
+	}
+	/**
+	 * Returns the smallest exact y coordinate of any edge. Only meaningful if there are edges.
+	 */
+	public final int getMinimumY() {
+		return minimumY;
+	}
+	/**
+	 * Returns the exact x coordinate of the start of the edge with the passed index.
+	 */
+	public final int getStartX(int index) {
+		return edges[index << 2];
+	}
+	/**
+	 * Returns the exact y coordinate of the start of the edge with the passed index.
+	 */
+	public final int getStartY(int index) {
+		return edges[(index << 2) + 1];
+	}
+	@Override
+	public final void setFill(int lightness, int alpha) {
+	}
+}
\ No newline at end of file
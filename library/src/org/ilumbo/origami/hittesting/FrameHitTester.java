@@ -0,0 +1,158 @@
+package org.ilumbo.origami.hittesting;
+
+/**
+ * Determines which polygon of a frame is under a point.
+ *
+ * The frame is divided into a grid of cells. Every cell lists the polygons whose bounding boxes touch it, from the topmost one
+ * to the bottommost one. A query walks the list of the cell the point lies in, and returns the first polygon which contains the
+ * point according to the non-zero rule (the way the polygon is filled). Queries do not allocate.
+ *
+ * A frame hit tester is immutable, and can therefore be queried by multiple threads at the same time.
+ */
+public final class FrameHitTester {
+	/**
+	 * The size of a cell, in exact units.
+	 */
+	private static final int CELL_SIZE = 128;
+	/**
+	 * The number of cells in a row or column of the grid.
+	 */
+	private static final int GRID_SIZE = 0x800 / CELL_SIZE;
+	/**
+	 * For every cell, the position of its first polygon in the array below. This array has one extra element at the end, which
+	 * is the length of said array.
+	 */
+	private final int[] cellPolygonOffsets;
+	/**
+	 * For every cell, the indices of the polygons whose bounding boxes touch it, from the topmost one to the bottommost one.
+	 */
+	private final int[] cellPolygons;
+	/**
+	 * The edges of all of the polygons, as (startX, startY, endX, endY) quadruples in exact coordinates.
+	 */
+	private final int[] edges;
+	/**
+	 * The number of polygons in the frame, including the ones which cannot be hit.
+	 */
+	private final int polygonCount;
+	/**
+	 * For every polygon, its bounds as (minimumX, minimumY, maximumX, maximumY) in exact coordinates.
+	 */
+	private final int[] polygonBounds;
+	/**
+	 * For every polygon, the index of its first edge. This array has one extra element at the end, which is the total number of
+	 * edges.
+	 */
+	private final int[] polygonEdgeOffsets;
+	/**
+	 * Creates a hit tester for the polygons with the passed edges and bounds. Polygons without edges cannot be hit.
+	 */
+	/* package */ FrameHitTester(int polygonCount, int[] polygonEdgeOffsets, int[] edges, int[] polygonBounds) {
+		this.polygonCount = polygonCount;
+		this.polygonEdgeOffsets = polygonEdgeOffsets;
+		this.edges = edges;
+		this.polygonBounds = polygonBounds;
+		// Count the polygons of every cell.
+		cellPolygonOffsets = new int[GRID_SIZE * GRID_SIZE + 1];
+		for (int polygonIndex = 0; polygonCount != polygonIndex; polygonIndex++) {
+			if (polygonEdgeOffsets[polygonIndex] == polygonEdgeOffsets[polygonIndex + 1]) {
+				continue;
+			}
+			final int boundsIndex = polygonIndex << 2;
+			final int firstColumn = toCell(polygonBounds[boundsIndex]);
+			final int lastColumn = toCell(polygonBounds[boundsIndex + 2]);
+			final int lastRow = toCell(polygonBounds[boundsIndex + 3]);
+			for (int row = toCell(polygonBounds[boundsIndex + 1]); lastRow >= row; row++) {
+				for (int column = firstColumn; lastColumn >= column; column++) {
+					cellPolygonOffsets[row * GRID_SIZE + column + 1]++;
+				}
+			}
+		}
+		for (int cellIndex = 0; GRID_SIZE * GRID_SIZE != cellIndex; cellIndex++) {
+			cellPolygonOffsets[cellIndex + 1] += cellPolygonOffsets[cellIndex];
+		}
+		// Fill the lists, walking the polygons from the topmost one to the bottommost one.
+		cellPolygons = new int[cellPolygonOffsets[GRID_SIZE * GRID_SIZE]];
+		final int[] cellPolygonCounts = new int[GRID_SIZE * GRID_SIZE];
+		for (int polygonIndex = polygonCount - 1; -1 != polygonIndex; polygonIndex--) {
+			if (polygonEdgeOffsets[polygonIndex] == polygonEdgeOffsets[polygonIndex + 1]) {
+				continue;
+			}
+			final int boundsIndex = polygonIndex << 2;
+			final int firstColumn = toCell(polygonBounds[boundsIndex]);
+			final int lastColumn = toCell(polygonBounds[boundsIndex + 2]);
+			final int lastRow = toCell(polygonBounds[boundsIndex + 3]);
+			for (int row = toCell(polygonBounds[boundsIndex + 1]); lastRow >= row; row++) {
+				for (int column = firstColumn; lastColumn >= column; column++) {
+					final int cellIndex = row * GRID_SIZE + column;
+					cellPolygons[cellPolygonOffsets[cellIndex] + cellPolygonCounts[cellIndex]++] = polygonIndex;
+				}
+			}
+		}
+	}
+	/**
+	 * Returns the winding number of the polygon with the passed index around the passed point, in exact coordinates. The
+	 * point is inside the polygon if the winding number is non-zero.
+	 */
+	private final int computeWinding(int polygonIndex, double exactX, double exactY) {
+		int result = 0;
+		final int edgeEnd = polygonEdgeOffsets[polygonIndex + 1] << 2;
+		for (int index = polygonEdgeOffsets[polygonIndex] << 2; edgeEnd != index; index += 4) {
+			final int startX = edges[index];
+			final int startY = edges[index + 1];
+			final int endX = edges[index + 2];
+			final int endY = edges[index + 3];
+			// Count the edges which cross the horizontal line through the point to the right of it. Whether the crossing lies
+			// to the right follows from the side of the edge the point lies on, so no division is required.
+			if (startY <= exactY && endY > exactY) {
+				if ((endX - startX) * (exactY - startY) - (exactX - startX) * (endY - startY) > 0) {
+					result++;
+				}
+			} else if (endY <= exactY && startY > exactY) {
+				if ((endX - startX) * (exactY - startY) - (exactX - startX) * (endY - startY) < 0) {
+					result--;
+				}
+			}
+		}
+		return result;
+	}
+	/**
+	 * Returns the index of the topmost polygon which contains the passed point, or -1 if there is no such polygon. The
+	 * coordinates are in the same unit as the coordinates passed to the builders, so the frame spans 0 to 1 horizontally and
+	 * vertically.
+	 */
+	public final int findPolygon(float x, float y) {
+		final double exactX = x * 0x800;
+		final double exactY = y * 0x800;
+		if (false == (exactX >= 0 && exactX <= 0x800 && exactY >= 0 && exactY <= 0x800)) {
+			return -1;
+		}
+		final int cellIndex = toCell((int) exactY) * GRID_SIZE + toCell((int) exactX);
+		final int cellEnd = cellPolygonOffsets[cellIndex + 1];
+		for (int index = cellPolygonOffsets[cellIndex]; cellEnd != index; index++) {
+			final int polygonIndex = cellPolygons[index];
+			// Check the bounding box first, which is cheap.
+			final int boundsIndex = polygonIndex << 2;
+			if (exactX < polygonBounds[boundsIndex] || exactY < polygonBounds[boundsIndex + 1] ||
+					exactX > polygonBounds[boundsIndex + 2] || exactY > polygonBounds[boundsIndex + 3]) {
+				continue;
+			}
+			if (0 != computeWinding(polygonIndex, exactX, exactY)) {
+				return polygonIndex;
+			}
+		}
+		return -1;
+	}
+	/**
+	 * Returns the number of polygons in the frame, including the ones which cannot be hit.
+	 */
+	public final int getPolygonCount() {
+		return polygonCount;
+	}
+	/**
+	 * Returns the index of the cell that contains the passed exact coordinate.
+	 */
+	private static final int toCell(int exactCoordinate) {
+		return Math.max(0, Math.min(GRID_SIZE - 1, exactCoordinate / CELL_SIZE));
+	}
+}
\ No newline at end of file
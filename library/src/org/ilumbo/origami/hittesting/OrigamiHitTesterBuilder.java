@@ -0,0 +1,143 @@
+package org.ilumbo.origami.hittesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.ilumbo.origami.geometry.PolygonEdges;
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds frame hit testers, which determine which polygon of a frame is under a point (such as a touch), from the exact
+ * coordinates in the document. The index a hit tester returns is the index of the polygon in its frame in the document.
+ * Polygons which are fully transparent cannot be hit.
+ *
+ * To build hit testers alongside frame drawers in a single read, combine this builder with a drawer builder in a
+ * {@link org.ilumbo.origami.reading.MulticastOrigamiBuilder}.
+ *
+ * Frames and polygons are expected to be built one after another, as the readers do.
+ */
+public final class OrigamiHitTesterBuilder implements OrigamiBuilder<FrameHitTester[]> {
+	private final class FrameHitTesterBuilder implements FrameBuilder {
+		private final class PolygonHitTesterBuilder implements PolygonBuilder {
+			/**
+			 * The alpha of the fill.
+			 */
+			private int alpha;
+			public PolygonHitTesterBuilder() {
+				polygonEdges.clear();
+			}
+			@Override
+			public final void addClose() {
+				polygonEdges.addClose();
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				polygonEdges.addLine(x, y, exactX, exactY);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				polygonEdges.addMove(x, y, exactX, exactY);
+			}
+			@Override
+			public final void build() {
+				polygonEdges.build();
+				addPolygon(0 != alpha);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				this.alpha = alpha;
+			}
+		}
+		@Override
+		public final void build() {
+			frameList.add(new FrameHitTester(polygonCount,
+					Arrays.copyOf(polygonEdgeOffsets, polygonCount + 1),
+					Arrays.copyOf(edges, edgeCount << 2),
+					Arrays.copyOf(polygonBounds, polygonCount << 2)));
+			// Start over for the next frame.
+			polygonCount = edgeCount = 0;
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return this.new PolygonHitTesterBuilder();
+		}
+	}
+	/**
+	 * The number of edges of the current frame which have been added.
+	 */
+	private int edgeCount;
+	/**
+	 * The edges of the current frame, as (startX, startY, endX, endY) quadruples in exact coordinates.
+	 */
+	private int[] edges;
+	/**
+	 * The hit testers of the frames built so far.
+	 */
+	private final ArrayList<FrameHitTester> frameList;
+	/**
+	 * For every polygon of the current frame, its bounds as (minimumX, minimumY, maximumX, maximumY) in exact coordinates.
+	 */
+	private int[] polygonBounds;
+	/**
+	 * The number of polygons of the current frame which have been built.
+	 */
+	private int polygonCount;
+	/**
+	 * For every polygon of the current frame, the index of its first edge. This array has one extra element at the end, which
+	 * is the total number of edges.
+	 */
+	private int[] polygonEdgeOffsets;
+	/**
+	 * The edges of the current polygon, in exact coordinates.
+	 */
+	private final PolygonEdges polygonEdges;
+	public OrigamiHitTesterBuilder() {
+		edges = new int[1024];
+		frameList = new ArrayList<FrameHitTester>(8);
+		polygonBounds = new int[128];
+		polygonEdgeOffsets = new int[33];
+		polygonEdges = new PolygonEdges();
+	}
+	/**
+	 * Adds the polygon whose edges are in the polygon edges to the current frame. If the polygon cannot be hit, its edges are
+	 * left out.
+	 */
+	private final void addPolygon(boolean hittable) {
+		// Ensure there is room for the polygon, and for the offset of the one after it.
+		if (polygonBounds.length == polygonCount << 2) {
+			polygonBounds = Arrays.copyOf(polygonBounds, polygonCount << 3);
+		}
+		if (polygonEdgeOffsets.length == polygonCount + 1) {
+			polygonEdgeOffsets = Arrays.copyOf(polygonEdgeOffsets, (polygonCount + 1) << 1);
+		}
+		final int polygonEdgeCount = hittable ? polygonEdges.getEdgeCount() : 0;
+		if (0 != polygonEdgeCount) {
+			if (edges.length < (edgeCount + polygonEdgeCount) << 2) {
+				edges = Arrays.copyOf(edges, Math.max(edges.length << 1, (edgeCount + polygonEdgeCount) << 2));
+			}
+			for (int index = 0; polygonEdgeCount != index; index++) {
+				final int edgeIndex = edgeCount++ << 2;
+				edges[edgeIndex] = polygonEdges.getStartX(index);
+				edges[edgeIndex + 1] = polygonEdges.getStartY(index);
+				edges[edgeIndex + 2] = polygonEdges.getEndX(index);
+				edges[edgeIndex + 3] = polygonEdges.getEndY(index);
+			}
+			final int boundsIndex = polygonCount << 2;
+			polygonBounds[boundsIndex] = polygonEdges.getMinimumX();
+			polygonBounds[boundsIndex + 1] = polygonEdges.getMinimumY();
+			polygonBounds[boundsIndex + 2] = polygonEdges.getMaximumX();
+			polygonBounds[boundsIndex + 3] = polygonEdges.getMaximumY();
+		}
+		polygonEdgeOffsets[++polygonCount] = edgeCount;
+	}
+	@Override
+	public final FrameHitTester[] build() {
+		FrameHitTester[] frames = new FrameHitTester[frameList.size()];
+		frames = frameList.toArray(frames);
+		return frames;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		return this.new FrameHitTesterBuilder();
+	}
+}
\ No newline at end of file
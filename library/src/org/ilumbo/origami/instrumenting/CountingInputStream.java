@@ -0,0 +1,58 @@
+package org.ilumbo.origami.instrumenting;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which counts the bytes read from (or skipped in) another input stream. Marking is not supported, so every
+ * byte is counted once.
+ */
+/* package */ final class CountingInputStream extends FilterInputStream {
+	/**
+	 * The number of bytes read or skipped so far.
+	 */
+	private long count;
+	public CountingInputStream(InputStream inputStream) {
+		super(inputStream);
+	}
+	/**
+	 * Returns the number of bytes read or skipped so far.
+	 */
+	public final long getCount() {
+		return count;
+	}
+	@Override
+	public final void mark(int readLimit) {
+	}
+	@Override
+	public final boolean markSupported() {
+		return false;
+	}
+	@Override
+	public final int read() throws IOException {
+		final int result = in.read();
+		if (-1 != result) {
+			count++;
+		}
+		return result;
+	}
+	@Override
+	public final int read(byte[] bytes, int offset, int length) throws IOException {
+		final int result = in.read(bytes, offset, length);
+		if (-1 != result) {
+			count += result;
+		}
+		return result;
+	}
+	@Override
+	public final void reset() throws IOException {
+		throw new IOException("Marking is not supported");
+	}
+	@Override
+	public final long skip(long length) throws IOException {
+		final long result = in.skip(length);
+		count += result;
+		return result;
+	}
+}
\ No newline at end of file
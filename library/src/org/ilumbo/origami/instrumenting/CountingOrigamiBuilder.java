@@ -0,0 +1,23 @@
+package org.ilumbo.origami.instrumenting;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * An origami builder which keeps counts of its own. An {@link InstrumentingOrigamiBuilder} which passes the document on to such
+ * a builder includes these counts in the metrics it collects. The methods for the counts a builder does not keep return -1.
+ */
+public interface CountingOrigamiBuilder<Result> extends OrigamiBuilder<Result> {
+	/**
+	 * Returns the number of times a paint was requested which had been created before, or -1 if this builder does not count
+	 * these.
+	 */
+	public int getPaintCacheHitCount();
+	/**
+	 * Returns the number of times a paint was requested which had to be created, or -1 if this builder does not count these.
+	 */
+	public int getPaintCacheMissCount();
+	/**
+	 * Returns the number of instructions received so far which had no effect, or -1 if this builder does not count these.
+	 */
+	public int getRedundantInstructionCount();
+}
\ No newline at end of file
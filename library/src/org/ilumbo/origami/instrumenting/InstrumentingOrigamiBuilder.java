@@ -0,0 +1,177 @@
+package org.ilumbo.origami.instrumenting;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.reading.OrigamiReader;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+
+/**
+ * Passes the document on to another builder (the target), counting the frames, polygons and instructions and measuring the
+ * time spent inside the target. Once the document has been read, the collected metrics are available through
+ * {@link #createMetrics(long, long)}.
+ *
+ * Every call to the target is timed, which adds some overhead of its own. The counts are not synchronised, so the frames must
+ * be built one after another (as the readers do).
+ */
+public final class InstrumentingOrigamiBuilder<Result> implements OrigamiBuilder<Result> {
+	private final class InstrumentingFrameBuilder implements FrameBuilder {
+		private final class InstrumentingPolygonBuilder implements PolygonBuilder {
+			/**
+			 * The polygon builder of the target.
+			 */
+			private final PolygonBuilder target;
+			public InstrumentingPolygonBuilder(PolygonBuilder target) {
+				this.target = target;
+			}
+			@Override
+			public final void addClose() {
+				closeCount++;
+				final long startTime = System.nanoTime();
+				target.addClose();
+				builderTime += System.nanoTime() - startTime;
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				lineCount++;
+				final long startTime = System.nanoTime();
+				target.addLine(x, y, exactX, exactY);
+				builderTime += System.nanoTime() - startTime;
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				moveCount++;
+				final long startTime = System.nanoTime();
+				target.addMove(x, y, exactX, exactY);
+				builderTime += System.nanoTime() - startTime;
+			}
+			@Override
+			public final void build() {
+				final long startTime = System.nanoTime();
+				target.build();
+				builderTime += System.nanoTime() - startTime;
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				final long startTime = System.nanoTime();
+				target.setFill(lightness, alpha);
+				builderTime += System.nanoTime() - startTime;
+			}
+		}
+		/**
+		 * The frame builder of the target.
+		 */
+		private final FrameBuilder target;
+		public InstrumentingFrameBuilder(FrameBuilder target) {
+			this.target = target;
+		}
+		@Override
+		public final void build() {
+			final long startTime = System.nanoTime();
+			target.build();
+			builderTime += System.nanoTime() - startTime;
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			polygonCount++;
+			final long startTime = System.nanoTime();
+			final PolygonBuilder result = target.createPolygonBuilder();
+			builderTime += System.nanoTime() - startTime;
+			return this.new InstrumentingPolygonBuilder(result);
+		}
+	}
+	/**
+	 * The time spent inside the methods of the target so far, in nanoseconds.
+	 */
+	private long builderTime;
+	/**
+	 * The number of "close" instructions received so far.
+	 */
+	private int closeCount;
+	/**
+	 * The number of frames received so far.
+	 */
+	private int frameCount;
+	/**
+	 * The number of "line" instructions received so far.
+	 */
+	private int lineCount;
+	/**
+	 * The number of "move" instructions received so far.
+	 */
+	private int moveCount;
+	/**
+	 * The number of polygons received so far.
+	 */
+	private int polygonCount;
+	/**
+	 * The builder to which the document is passed.
+	 */
+	private final OrigamiBuilder<? extends Result> target;
+	/**
+	 * Creates an instrumenting builder which passes the document on to the passed target.
+	 */
+	public InstrumentingOrigamiBuilder(OrigamiBuilder<? extends Result> target) {
+		this.target = target;
+	}
+	@Override
+	public final Result build() {
+		final long startTime = System.nanoTime();
+		final Result result = target.build();
+		builderTime += System.nanoTime() - startTime;
+		return result;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		frameCount++;
+		final long startTime = System.nanoTime();
+		final FrameBuilder result = target.createFrameBuilder();
+		builderTime += System.nanoTime() - startTime;
+		return this.new InstrumentingFrameBuilder(result);
+	}
+	/**
+	 * Creates metrics from what has been collected so far. The number of bytes read and the total time the reading took in
+	 * nanoseconds are not known to this builder, and are passed by the caller. Either can be -1 if unknown. The parse time is
+	 * the total time minus the time spent inside the target.
+	 *
+	 * If the target is a {@link CountingOrigamiBuilder}, the metrics include the counts it keeps, such as the number of
+	 * redundant instructions a cleaner saw or the hits and misses of the paint cache of a drawer builder.
+	 */
+	public final OrigamiMetrics createMetrics(long byteCount, long totalTime) {
+		final OrigamiMetrics result = new OrigamiMetrics();
+		result.byteCount = byteCount;
+		result.builderTime = builderTime;
+		result.parseTime = -1 == totalTime ? -1 : Math.max(0, totalTime - builderTime);
+		result.frameCount = frameCount;
+		result.polygonCount = polygonCount;
+		result.moveCount = moveCount;
+		result.lineCount = lineCount;
+		result.closeCount = closeCount;
+		if (target instanceof CountingOrigamiBuilder) {
+			final CountingOrigamiBuilder<?> countingTarget = (CountingOrigamiBuilder<?>) target;
+			result.redundantInstructionCount = countingTarget.getRedundantInstructionCount();
+			result.paintCacheHitCount = countingTarget.getPaintCacheHitCount();
+			result.paintCacheMissCount = countingTarget.getPaintCacheMissCount();
+		} else {
+			result.redundantInstructionCount = result.paintCacheHitCount = result.paintCacheMissCount = -1;
+		}
+		return result;
+	}
+	/**
+	 * Reads an origami document from the passed input stream using the passed reader, exactly like
+	 * {@link OrigamiReader#read(InputStream, OrigamiBuilder)} does, while collecting metrics: the number of bytes read, the
+	 * number of frames, polygons and instructions, and the time spent parsing versus the time spent inside the builder. Once the
+	 * document has been read, the metrics are passed to the passed listener. If reading fails, the listener is not called.
+	 */
+	public static final Object read(OrigamiReader reader, InputStream inputStream, OrigamiBuilder<?> builder,
+			OrigamiMetricsListener listener) throws OrigamiDocumentFormatException, IOException {
+		final CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+		final InstrumentingOrigamiBuilder<Object> instrumentingBuilder = new InstrumentingOrigamiBuilder<Object>(builder);
+		final long startTime = System.nanoTime();
+		final Object result = reader.read(countingInputStream, instrumentingBuilder);
+		listener.onMetricsCollected(instrumentingBuilder.createMetrics(countingInputStream.getCount(),
+				System.nanoTime() - startTime));
+		return result;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package org.ilumbo.origami.instrumenting;
+
+/**
+ * The metrics collected while an origami document was read into a builder. The counts which could not be determined are -1.
+ *
+ * Times are in nanoseconds. The builder time is the time spent inside the methods of the builder (including its build
+ * method), and the parse time is the rest of the time the reading took. The parse time therefore includes reading the input
+ * stream.
+ */
+public final class OrigamiMetrics {
+	/**
+	 * The time spent inside the methods of the builder, in nanoseconds.
+	 */
+	/* package */ long builderTime;
+	/**
+	 * The number of bytes read.
+	 */
+	/* package */ long byteCount;
+	/**
+	 * The number of "close" instructions, including the ones every polygon implicitly ends with.
+	 */
+	/* package */ int closeCount;
+	/**
+	 * The number of frames.
+	 */
+	/* package */ int frameCount;
+	/**
+	 * The number of "line" instructions.
+	 */
+	/* package */ int lineCount;
+	/**
+	 * The number of "move" instructions.
+	 */
+	/* package */ int moveCount;
+	/**
+	 * The number of times the builder requested a paint it had created before.
+	 */
+	/* package */ int paintCacheHitCount;
+	/**
+	 * The number of times the builder requested a paint it had to create.
+	 */
+	/* package */ int paintCacheMissCount;
+	/**
+	 * The time spent reading outside of the builder, in nanoseconds.
+	 */
+	/* package */ long parseTime;
+	/**
+	 * The number of polygons.
+	 */
+	/* package */ int polygonCount;
+	/**
+	 * The number of instructions which had no effect, as seen by the cleaner.
+	 */
+	/* package */ int redundantInstructionCount;
+	/* package */ OrigamiMetrics() {
+	}
+	/**
+	 * Returns the time spent inside the methods of the builder, in nanoseconds.
+	 */
+	public final long getBuilderTime() {
+		return builderTime;
+	}
+	/**
+	 * Returns the number of bytes read, or -1 if unknown.
+	 */
+	public final long getByteCount() {
+		return byteCount;
+	}
+	/**
+	 * Returns the number of "close" instructions, including the ones every polygon implicitly ends with.
+	 */
+	public final int getCloseCount() {
+		return closeCount;
+	}
+	/**
+	 * Returns the number of frames.
+	 */
+	public final int getFrameCount() {
+		return frameCount;
+	}
+	/**
+	 * Returns the number of "line" instructions.
+	 */
+	public final int getLineCount() {
+		return lineCount;
+	}
+	/**
+	 * Returns the number of "move" instructions.
+	 */
+	public final int getMoveCount() {
+		return moveCount;
+	}
+	/**
+	 * Returns the number of times the builder requested a paint it had created before, or -1 if the builder does not count
+	 * these (see {@link CountingOrigamiBuilder}).
+	 */
+	public final int getPaintCacheHitCount() {
+		return paintCacheHitCount;
+	}
+	/**
+	 * Returns the number of times the builder requested a paint it had to create, or -1 if the builder does not count these
+	 * (see {@link CountingOrigamiBuilder}).
+	 */
+	public final int getPaintCacheMissCount() {
+		return paintCacheMissCount;
+	}
+	/**
+	 * Returns the time spent reading outside of the builder in nanoseconds, or -1 if unknown.
+	 */
+	public final long getParseTime() {
+		return parseTime;
+	}
+	/**
+	 * Returns the number of polygons.
+	 */
+	public final int getPolygonCount() {
+		return polygonCount;
+	}
+	/**
+	 * Returns the number of instructions which had no effect, or -1 if the builder does not count these (see
+	 * {@link CountingOrigamiBuilder}).
+	 */
+	public final int getRedundantInstructionCount() {
+		return redundantInstructionCount;
+	}
+	@Override
+	public final String toString() {
+		return new StringBuilder(256)
+				.append("OrigamiMetrics[bytes=")
+				.append(byteCount)
+				.append(", frames=")
+				.append(frameCount)
+				.append(", polygons=")
+				.append(polygonCount)
+				.append(", moves=")
+				.append(moveCount)
+				.append(", lines=")
+				.append(lineCount)
+				.append(", closes=")
+				.append(closeCount)
+				.append(", redundant=")
+				.append(redundantInstructionCount)
+				.append(", parseTime=")
+				.append(parseTime)
+				.append(", builderTime=")
+				.append(builderTime)
+				.append(", paintCacheHits=")
+				.append(paintCacheHitCount)
+				.append(", paintCacheMisses=")
+				.append(paintCacheMissCount)
+				.append(']')
+				.toString();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package org.ilumbo.origami.instrumenting;
+
+/**
+ * Receives the metrics collected while an origami document was read. See
+ * {@link InstrumentingOrigamiBuilder#read(org.ilumbo.origami.reading.OrigamiReader, java.io.InputStream,
+ * org.ilumbo.origami.reading.OrigamiBuilder, OrigamiMetricsListener)}.
+ */
+public interface OrigamiMetricsListener {
+	/**
+	 * Called once the document has been read and the builder has been built, on the thread that read the document.
+	 */
+	public void onMetricsCollected(OrigamiMetrics metrics);
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package org.ilumbo.origami.packing;
+
+import java.util.Arrays;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds a packed origami, which stores the document in a handful of flat arrays of primitives. The instructions, including
+ * their exact coordinates, are stored as they are received. This means that replaying the packed origami into another builder
+ * results in exactly the same calls.
+ *
+ * Frames and polygons are expected to be built one after another, as the readers do.
+ */
+public final class OrigamiPacker implements OrigamiBuilder<PackedOrigami> {
+	private final class FramePacker implements FrameBuilder {
+		private final class PolygonPacker implements PolygonBuilder {
+			@Override
+			public final void addClose() {
+				addInstruction(PackedOrigami.INSTRUCTION_TYPE_CLOSE << 24);
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				addInstruction((PackedOrigami.INSTRUCTION_TYPE_LINE << 24) | ((exactX & 0xFFF) << 12) | ((exactY & 0xFFF) << 0));
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				addInstruction((PackedOrigami.INSTRUCTION_TYPE_MOVE << 24) | ((exactX & 0xFFF) << 12) | ((exactY & 0xFFF) << 0));
+			}
+			@Override
+			public final void build() {
+				polygonInstructionOffsets[++polygonCount] = instructionCount;
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				polygonFills[polygonCount] = (short) ((lightness << 8) | (alpha << 0));
+			}
+		}
+		@Override
+		public final void build() {
+			framePolygonOffsets[++frameCount] = polygonCount;
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			// Ensure there is room for the polygon, and for the offset of the one after it.
+			if (polygonFills.length == polygonCount) {
+				polygonFills = Arrays.copyOf(polygonFills, polygonCount << 1);
+			}
+			if (polygonInstructionOffsets.length == polygonCount + 1) {
+				polygonInstructionOffsets = Arrays.copyOf(polygonInstructionOffsets, (polygonCount + 1) << 1);
+			}
+			return this.new PolygonPacker();
+		}
+	}
+	/**
+	 * The number of frames which have been built.
+	 */
+	private int frameCount;
+	/**
+	 * For every frame, the index of its first polygon. This array has one extra element at the end, which is the total number
+	 * of polygons.
+	 */
+	private int[] framePolygonOffsets;
+	/**
+	 * The number of instructions which have been added.
+	 */
+	private int instructionCount;
+	/**
+	 * The instructions, where every instruction is (type << 24) | (exactX << 12) | (exactY << 0).
+	 */
+	private int[] instructions;
+	/**
+	 * The number of polygons which have been built.
+	 */
+	private int polygonCount;
+	/**
+	 * For every polygon, the fill, which is (lightness << 8) | (alpha << 0).
+	 */
+	private short[] polygonFills;
+	/**
+	 * For every polygon, the index of its first instruction. This array has one extra element at the end, which is the total
+	 * number of instructions.
+	 */
+	private int[] polygonInstructionOffsets;
+	public OrigamiPacker() {
+		framePolygonOffsets = new int[8];
+		instructions = new int[256];
+		polygonFills = new short[32];
+		polygonInstructionOffsets = new int[32];
+	}
+	/**
+	 * Adds the passed packed instruction.
+	 */
+	private final void addInstruction(int instruction) {
+		if (instructions.length == instructionCount) {
+			instructions = Arrays.copyOf(instructions, instructionCount << 1);
+		}
+		instructions[instructionCount++] = instruction;
+	}
+	@Override
+	public final PackedOrigami build() {
+		return new PackedOrigami(Arrays.copyOf(framePolygonOffsets, frameCount + 1),
+				Arrays.copyOf(polygonFills, polygonCount),
+				Arrays.copyOf(polygonInstructionOffsets, polygonCount + 1),
+				Arrays.copyOf(instructions, instructionCount));
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		// Ensure there is room for the offset of the frame after this one.
+		if (framePolygonOffsets.length == frameCount + 1) {
+			framePolygonOffsets = Arrays.copyOf(framePolygonOffsets, (frameCount + 1) << 1);
+		}
+		return this.new FramePacker();
+	}
+}
@@ -0,0 +1,132 @@
+package org.ilumbo.origami.packing;
+
+import org.ilumbo.origami.reading.OrigamiBuilder;
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
+
+/**
+ * An origami document packed into a handful of flat arrays of primitives. A packed origami can be replayed into any builder,
+ * which receives exactly the same calls the {@link OrigamiPacker} that created it received. No parsing is involved.
+ *
+ * A packed origami is immutable, and can therefore be replayed by multiple threads at the same time.
+ */
+public final class PackedOrigami {
+	/**
+	 * The instruction type for closes.
+	 */
+	/* package */ static final int INSTRUCTION_TYPE_CLOSE = 2;
+	/**
+	 * The instruction type for lines.
+	 */
+	/* package */ static final int INSTRUCTION_TYPE_LINE = 1;
+	/**
+	 * The instruction type for moves.
+	 */
+	/* package */ static final int INSTRUCTION_TYPE_MOVE = 0;
+	/**
+	 * For every frame, the index of its first polygon. This array has one extra element at the end, which is the total number
+	 * of polygons.
+	 */
+	private final int[] framePolygonOffsets;
+	/**
+	 * The instructions, where every instruction is (type << 24) | (exactX << 12) | (exactY << 0).
+	 */
+	private final int[] instructions;
+	/**
+	 * For every polygon, the fill, which is (lightness << 8) | (alpha << 0).
+	 */
+	private final short[] polygonFills;
+	/**
+	 * For every polygon, the index of its first instruction. This array has one extra element at the end, which is the total
+	 * number of instructions.
+	 */
+	private final int[] polygonInstructionOffsets;
+	/* package */ PackedOrigami(int[] framePolygonOffsets, short[] polygonFills, int[] polygonInstructionOffsets,
+			int[] instructions) {
+		this.framePolygonOffsets = framePolygonOffsets;
+		this.polygonFills = polygonFills;
+		this.polygonInstructionOffsets = polygonInstructionOffsets;
+		this.instructions = instructions;
+	}
+	/**
+	 * Returns the fill of the polygon with the passed index in the frame with the passed index, which is
+	 * (lightness << 8) | (alpha << 0).
+	 */
+	public final int getFill(int frameIndex, int polygonIndex) {
+		return polygonFills[framePolygonOffsets[frameIndex] + polygonIndex] & 0xFFFF;
+	}
+	/**
+	 * Returns the number of frames.
+	 */
+	public final int getFrameCount() {
+		return framePolygonOffsets.length - 1;
+	}
+	/**
+	 * Returns the number of instructions in the polygon with the passed index in the frame with the passed index.
+	 */
+	public final int getInstructionCount(int frameIndex, int polygonIndex) {
+		final int index = framePolygonOffsets[frameIndex] + polygonIndex;
+		return polygonInstructionOffsets[index + 1] - polygonInstructionOffsets[index];
+	}
+	/**
+	 * Returns the number of polygons in the frame with the passed index.
+	 */
+	public final int getPolygonCount(int frameIndex) {
+		return framePolygonOffsets[frameIndex + 1] - framePolygonOffsets[frameIndex];
+	}
+	/**
+	 * Pushes the entire document to the passed builder, and returns the result of said builder.
+	 */
+	public final <Result> Result replay(OrigamiBuilder<Result> builder) {
+		final int frameCount = framePolygonOffsets.length - 1;
+		for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+			final FrameBuilder frameBuilder = builder.createFrameBuilder();
+			replayFrame(frameIndex, frameBuilder);
+			frameBuilder.build();
+		}
+		return builder.build();
+	}
+	/**
+	 * Pushes the polygons of the frame with the passed index to the passed builder. The build method of the frame builder is
+	 * not called.
+	 */
+	public final void replayFrame(int frameIndex, FrameBuilder builder) {
+		final int polygonCount = getPolygonCount(frameIndex);
+		for (int polygonIndex = 0; polygonCount != polygonIndex; polygonIndex++) {
+			final PolygonBuilder polygonBuilder = builder.createPolygonBuilder();
+			replayPolygon(frameIndex, polygonIndex, polygonBuilder);
+			polygonBuilder.build();
+		}
+	}
+	/**
+	 * Pushes the fill and the instructions of the polygon with the passed index in the frame with the passed index to the
+	 * passed builder. The build method of the polygon builder is not called.
+	 */
+	public final void replayPolygon(int frameIndex, int polygonIndex, PolygonBuilder builder) {
+		final int index = framePolygonOffsets[frameIndex] + polygonIndex;
+		// Separate the two 8-bit channels of the fill, and pass them to the builder.
+		{
+			final int fill = polygonFills[index] & 0xFFFF;
+			builder.setFill((fill >>> 8) & 0xFF,
+					(fill >>> 0) & 0xFF);
+		}
+		// Push the instructions.
+		final int instructionEnd = polygonInstructionOffsets[index + 1];
+		for (int instructionIndex = polygonInstructionOffsets[index]; instructionEnd != instructionIndex; instructionIndex++) {
+			final int instruction = instructions[instructionIndex];
+			final int exactX = (instruction >>> 12) & 0xFFF;
+			final int exactY = (instruction >>> 0) & 0xFFF;
+			switch (instruction >>> 24) {
+			case INSTRUCTION_TYPE_MOVE:
+				builder.addMove(exactX / 2048f, exactY / 2048f, exactX, exactY);
+				break;
+			case INSTRUCTION_TYPE_LINE:
+				builder.addLine(exactX / 2048f, exactY / 2048f, exactX, exactY);
+				break;
+			case INSTRUCTION_TYPE_CLOSE:
+				builder.addClose();
+				break;
+			}
+		}
+	}
+}
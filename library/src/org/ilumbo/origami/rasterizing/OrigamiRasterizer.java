@@ -0,0 +1,328 @@
+package org.ilumbo.origami.rasterizing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.ilumbo.origami.geometry.PolygonEdges;
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds rasterized frames, without any help of the Android graphics classes. Every frame is rasterized into an array of ARGB
+ * pixels of the passed size, row by row. The polygons are filled using the non-zero rule, in a grey of their lightness with
+ * their alpha, and drawn over one another in the order they appear in the document. This matches the paints created by the
+ * {@link org.ilumbo.origami.drawing.OrigamiDrawerBuilder}. The pixels are not premultiplied, and pixels no polygon touches are
+ * fully transparent.
+ *
+ * The polygons are filled span by span in fixed-point coordinates. Without anti-aliasing, a pixel is filled if its centre is
+ * inside the polygon. With anti-aliasing, every row is sampled at several heights and the horizontal coverage of every pixel is
+ * computed exactly at each of them. Nothing is allocated per row.
+ *
+ * Frames and polygons are expected to be built one after another, as the readers do.
+ */
+public final class OrigamiRasterizer implements OrigamiBuilder<int[][]> {
+	private final class FrameRasterizer implements FrameBuilder {
+		private final class PolygonRasterizer implements PolygonBuilder {
+			/**
+			 * The alpha of the fill.
+			 */
+			private int alpha;
+			/**
+			 * The lightness of the fill.
+			 */
+			private int lightness;
+			public PolygonRasterizer() {
+				polygonEdges.clear();
+			}
+			@Override
+			public final void addClose() {
+				polygonEdges.addClose();
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				polygonEdges.addLine(x, y, exactX, exactY);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				polygonEdges.addMove(x, y, exactX, exactY);
+			}
+			@Override
+			public final void build() {
+				polygonEdges.build();
+				rasterizePolygon(pixels, lightness, alpha);
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				this.lightness = lightness;
+				this.alpha = alpha;
+			}
+		}
+		/**
+		 * The pixels of the frame.
+		 */
+		private final int[] pixels;
+		public FrameRasterizer() {
+			pixels = new int[width * height];
+		}
+		@Override
+		public final void build() {
+			frameList.add(pixels);
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			return this.new PolygonRasterizer();
+		}
+	}
+	/**
+	 * The number of fractional bits of the fixed-point coordinates.
+	 */
+	private static final int FRACTION_BITS = 8;
+	/**
+	 * The size of a pixel in fixed-point coordinates.
+	 */
+	private static final int PIXEL_SIZE = 1 << FRACTION_BITS;
+	/**
+	 * The number of heights at which every row is sampled with anti-aliasing.
+	 */
+	private static final int SUB_SCANLINE_COUNT = 4;
+	/**
+	 * Whether the edges of the polygons are anti-aliased.
+	 */
+	private final boolean antiAlias;
+	/**
+	 * For every pixel in the current row, the coverage of the partially covered parts of the spans (with anti-aliasing).
+	 */
+	private final int[] coverages;
+	/**
+	 * For every pixel in the current row, the change in the number of spans that cover the pixel entirely compared to the
+	 * pixel before it (with anti-aliasing).
+	 */
+	private final int[] coverageDeltas;
+	/**
+	 * For every crossing of an edge and the current scanline, +1 if the edge goes down or -1 if it goes up.
+	 */
+	private int[] crossingDirections;
+	/**
+	 * The fixed-point x coordinates at which the edges cross the current scanline.
+	 */
+	private int[] crossingXs;
+	/**
+	 * The fixed-point coordinates of the edges of the current polygon, as (startX, startY, endX, endY) quadruples.
+	 */
+	private int[] fixedEdges;
+	/**
+	 * The frames rasterized so far.
+	 */
+	private final ArrayList<int[]> frameList;
+	/**
+	 * The height of the frames, in pixels.
+	 */
+	private final int height;
+	/**
+	 * The edges of the current polygon, in exact coordinates.
+	 */
+	private final PolygonEdges polygonEdges;
+	/**
+	 * The width of the frames, in pixels.
+	 */
+	private final int width;
+	/**
+	 * Creates a rasterizer which rasterizes frames of the passed size.
+	 */
+	public OrigamiRasterizer(int width, int height, boolean antiAlias) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("The width and height must be positive");
+		}
+		this.width = width;
+		this.height = height;
+		this.antiAlias = antiAlias;
+		frameList = new ArrayList<int[]>(8);
+		polygonEdges = new PolygonEdges();
+		fixedEdges = new int[64];
+		crossingDirections = new int[16];
+		crossingXs = new int[16];
+		if (antiAlias) {
+			coverages = new int[width + 1];
+			coverageDeltas = new int[width + 1];
+		} else {
+			coverages = coverageDeltas = null;
+		}
+	}
+	/**
+	 * Blends the passed grey with the passed alpha over the passed pixel, and returns the result.
+	 */
+	private static final int blend(int pixel, int grey, int alpha) {
+		if (0 == alpha) {
+			return pixel;
+		}
+		final int pixelAlpha = pixel >>> 24;
+		if (0xFF == alpha || 0 == pixelAlpha) {
+			return (alpha << 24) | (grey * 0x010101);
+		}
+		// Source-over, on colours which are not premultiplied. The alpha of the result is scaled by 255 here.
+		final int scaledResultAlpha = alpha * 0xFF + pixelAlpha * (0xFF - alpha);
+		final int resultGrey = (grey * alpha * 0xFF + (pixel & 0xFF) * pixelAlpha * (0xFF - alpha) + (scaledResultAlpha >> 1)) /
+				scaledResultAlpha;
+		return (((scaledResultAlpha + 0x7F) / 0xFF) << 24) | (resultGrey * 0x010101);
+	}
+	@Override
+	public final int[][] build() {
+		int[][] frames = new int[frameList.size()][];
+		frames = frameList.toArray(frames);
+		return frames;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		return this.new FrameRasterizer();
+	}
+	/**
+	 * Finds the points where the edges of the current polygon cross the horizontal line at the passed fixed-point y coordinate,
+	 * sorts them from left to right, and returns the number of them.
+	 */
+	private final int findCrossings(int edgeCount, int y) {
+		int result = 0;
+		for (int index = edgeCount << 2; 0 != index;) {
+			index -= 4;
+			final int startY = fixedEdges[index + 1];
+			final int endY = fixedEdges[index + 3];
+			final int direction;
+			if (startY <= y && endY > y) {
+				direction = 1;
+			} else if (endY <= y && startY > y) {
+				direction = -1;
+			} else {
+				continue;
+			}
+			final int startX = fixedEdges[index];
+			final int x = startX + (int) ((long) (y - startY) * (fixedEdges[index + 2] - startX) / (endY - startY));
+			if (crossingXs.length == result) {
+				crossingXs = Arrays.copyOf(crossingXs, result << 1);
+				crossingDirections = Arrays.copyOf(crossingDirections, result << 1);
+			}
+			// Insert the crossing, keeping the crossings sorted.
+			int crossingIndex = result++;
+			while (0 != crossingIndex && crossingXs[crossingIndex - 1] > x) {
+				crossingXs[crossingIndex] = crossingXs[crossingIndex - 1];
+				crossingDirections[crossingIndex] = crossingDirections[crossingIndex - 1];
+				crossingIndex--;
+			}
+			crossingXs[crossingIndex] = x;
+			crossingDirections[crossingIndex] = direction;
+		}
+		return result;
+	}
+	/**
+	 * Rasterizes the polygon whose edges are in the polygon edges into the passed pixels.
+	 */
+	private final void rasterizePolygon(int[] pixels, int lightness, int alpha) {
+		final int edgeCount = polygonEdges.getEdgeCount();
+		if (0 == edgeCount || 0 == alpha) {
+			return;
+		}
+		// Convert the edges to fixed-point coordinates.
+		if (fixedEdges.length < edgeCount << 2) {
+			fixedEdges = new int[edgeCount << 3];
+		}
+		for (int index = 0; edgeCount != index; index++) {
+			final int fixedIndex = index << 2;
+			fixedEdges[fixedIndex] = toFixed(polygonEdges.getStartX(index), width);
+			fixedEdges[fixedIndex + 1] = toFixed(polygonEdges.getStartY(index), height);
+			fixedEdges[fixedIndex + 2] = toFixed(polygonEdges.getEndX(index), width);
+			fixedEdges[fixedIndex + 3] = toFixed(polygonEdges.getEndY(index), height);
+		}
+		final int firstRow = Math.max(0, toFixed(polygonEdges.getMinimumY(), height) >> FRACTION_BITS);
+		final int lastRow = Math.min(height - 1, toFixed(polygonEdges.getMaximumY(), height) >> FRACTION_BITS);
+		if (antiAlias) {
+			rasterizePolygonAntiAliased(pixels, lightness, alpha, edgeCount, firstRow, lastRow);
+		} else {
+			rasterizePolygonAliased(pixels, lightness, alpha, edgeCount, firstRow, lastRow);
+		}
+	}
+	/**
+	 * Rasterizes the polygon without anti-aliasing, filling the pixels whose centres are inside it.
+	 */
+	private final void rasterizePolygonAliased(int[] pixels, int lightness, int alpha, int edgeCount, int firstRow,
+			int lastRow) {
+		for (int row = firstRow; lastRow >= row; row++) {
+			final int crossingCount = findCrossings(edgeCount, (row << FRACTION_BITS) + (PIXEL_SIZE >> 1));
+			final int rowOffset = row * width;
+			int winding = 0;
+			int spanStart = 0;
+			for (int crossingIndex = 0; crossingCount != crossingIndex; crossingIndex++) {
+				final int previousWinding = winding;
+				winding += crossingDirections[crossingIndex];
+				// A span starts where the winding becomes non-zero, and ends where it becomes zero again. Fill the pixels
+				// whose centres lie inside the span.
+				if (0 == previousWinding && 0 != winding) {
+					spanStart = crossingXs[crossingIndex];
+				} else if (0 != previousWinding && 0 == winding) {
+					final int firstPixel = Math.max(0, (spanStart - (PIXEL_SIZE >> 1) + PIXEL_SIZE - 1) >> FRACTION_BITS);
+					final int endPixel = Math.min(width,
+							(crossingXs[crossingIndex] - (PIXEL_SIZE >> 1) + PIXEL_SIZE - 1) >> FRACTION_BITS);
+					for (int pixel = firstPixel; endPixel > pixel; pixel++) {
+						pixels[rowOffset + pixel] = blend(pixels[rowOffset + pixel], lightness, alpha);
+					}
+				}
+			}
+		}
+	}
+	/**
+	 * Rasterizes the polygon with anti-aliasing, blending every pixel according to how much of it is covered.
+	 */
+	private final void rasterizePolygonAntiAliased(int[] pixels, int lightness, int alpha, int edgeCount, int firstRow,
+			int lastRow) {
+		for (int row = firstRow; lastRow >= row; row++) {
+			int firstTouchedPixel = width;
+			int lastTouchedPixel = -1;
+			// Accumulate the coverage of the spans at every sub-scanline.
+			for (int subScanline = 0; SUB_SCANLINE_COUNT != subScanline; subScanline++) {
+				final int crossingCount = findCrossings(edgeCount,
+						(row << FRACTION_BITS) + (subScanline * PIXEL_SIZE + (PIXEL_SIZE >> 1)) / SUB_SCANLINE_COUNT);
+				int winding = 0;
+				int spanStart = 0;
+				for (int crossingIndex = 0; crossingCount != crossingIndex; crossingIndex++) {
+					final int previousWinding = winding;
+					winding += crossingDirections[crossingIndex];
+					if (0 == previousWinding && 0 != winding) {
+						spanStart = Math.max(0, crossingXs[crossingIndex]);
+					} else if (0 != previousWinding && 0 == winding) {
+						final int spanEnd = Math.min(width << FRACTION_BITS, crossingXs[crossingIndex]);
+						if (spanEnd <= spanStart) {
+							continue;
+						}
+						final int startPixel = spanStart >> FRACTION_BITS;
+						final int endPixel = spanEnd >> FRACTION_BITS;
+						if (startPixel == endPixel) {
+							coverages[startPixel] += spanEnd - spanStart;
+						} else {
+							// The pixels between the first and the last one are covered entirely. Record that as deltas.
+							coverages[startPixel] += PIXEL_SIZE - (spanStart & (PIXEL_SIZE - 1));
+							coverageDeltas[startPixel + 1] += PIXEL_SIZE;
+							coverageDeltas[endPixel] -= PIXEL_SIZE;
+							coverages[endPixel] += spanEnd & (PIXEL_SIZE - 1);
+						}
+						firstTouchedPixel = Math.min(firstTouchedPixel, startPixel);
+						lastTouchedPixel = Math.max(lastTouchedPixel, endPixel);
+					}
+				}
+			}
+			// Blend the touched pixels, and reset the coverage for the next row.
+			final int rowOffset = row * width;
+			int fullCoverage = 0;
+			for (int pixel = firstTouchedPixel; lastTouchedPixel >= pixel; pixel++) {
+				fullCoverage += coverageDeltas[pixel];
+				final int coverage = fullCoverage + coverages[pixel];
+				coverages[pixel] = coverageDeltas[pixel] = 0;
+				if (0 != coverage && width != pixel) {
+					pixels[rowOffset + pixel] = blend(pixels[rowOffset + pixel], lightness,
+							(alpha * coverage + (PIXEL_SIZE * SUB_SCANLINE_COUNT >> 1)) / (PIXEL_SIZE * SUB_SCANLINE_COUNT));
+				}
+			}
+		}
+	}
+	/**
+	 * Converts the passed exact coordinate to a fixed-point coordinate, for a frame with the passed size in pixels.
+	 */
+	private static final int toFixed(int exactCoordinate, int size) {
+		return (int) (((long) exactCoordinate * size << FRACTION_BITS) + 0x400 >> 11);
+	}
+}
@@ -0,0 +1,243 @@
+package org.ilumbo.origami.reading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+
+/**
+ * Reads origami documents in the binary format. Like the {@link OrigamiReader}, this class does not create a data structure
+ * for the document but relies on a builder to do so.
+ *
+ * The binary format contains the same data as the XML format. All multi-byte integers are big-endian.
+ *
+ * <pre>
+ * document: "ORIG" version(1 byte) frameCount(2 bytes) frame*
+ * frame:    polygonCount(2 bytes) polygon*
+ * polygon:  lightness(1 byte) alpha(1 byte) instructionCount(2 bytes) instructionTypes coordinates
+ * </pre>
+ *
+ * The instruction types are 2 bits each, four to a byte where the first instruction occupies the least significant bits. 0
+ * is "move", 1 is "line" and 2 is "close". The coordinates follow for every "move" and "line" instruction in order: 3 bytes
+ * each, which hold the exact x coordinate in the upper 12 bits and the exact y coordinate in the lower 12 bits. (This is
+ * exactly the integer that is written in hexadecimal in the XML format.) Like in the XML format, a polygon implicitly ends
+ * with a "close" instruction.
+ *
+ * A binary origami reader does not have any internal state that would make it unsafe to re-use when reading multiple
+ * documents.
+ */
+public class BinaryOrigamiReader {
+	/**
+	 * The instruction type for closes.
+	 */
+	public static final int INSTRUCTION_TYPE_CLOSE = 2;
+	/**
+	 * The instruction type for lines.
+	 */
+	public static final int INSTRUCTION_TYPE_LINE = 1;
+	/**
+	 * The instruction type for moves.
+	 */
+	public static final int INSTRUCTION_TYPE_MOVE = 0;
+	/**
+	 * The bytes every binary origami document starts with.
+	 */
+	public static final byte[] MAGIC = new byte[]{'O', 'R', 'I', 'G'};
+	/**
+	 * The version of the binary format this reader reads, which follows the magic bytes.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Creates an index of the frames in the document in the passed buffer, from its position up to its limit. The contents of
+	 * the frames are skipped rather than decoded. The position and limit of the buffer are not changed.
+	 */
+	public FrameIndex createFrameIndex(ByteBuffer buffer) throws OrigamiDocumentFormatException {
+		final ByteBuffer documentBuffer = buffer.duplicate();
+		final int documentStart = documentBuffer.position();
+		try {
+			readHeader(documentBuffer);
+			final int frameCount = documentBuffer.getShort() & 0xFFFF;
+			final int[] frameOffsets = new int[frameCount];
+			final int[] frameLengths = new int[frameCount];
+			for (int index = 0; frameCount != index; index++) {
+				final int frameStart = documentBuffer.position();
+				skipFrame(documentBuffer);
+				frameOffsets[index] = frameStart - documentStart;
+				frameLengths[index] = documentBuffer.position() - frameStart;
+			}
+			return new FrameIndex(documentBuffer.limit() - documentStart, frameOffsets, frameLengths);
+		} catch (BufferUnderflowException exception) {
+			throw new OrigamiDocumentFormatException("The document ends unexpectedly");
+		}
+	}
+	/**
+	 * Reads an origami document from the passed buffer, from its position up to its limit. The position and limit of the
+	 * buffer are not changed, which means one buffer (such as a mapping of a file) can be shared between threads that each read
+	 * from their own duplicate or slice of it. The buffer may be direct. The passed builder receives the data in the document,
+	 * and flows it into some kind of data structure. Said "some kind of data structure" is returned.
+	 */
+	public Object read(ByteBuffer buffer, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException {
+		// Read the document.
+		try {
+			readDocument(buffer.duplicate(), builder);
+		} catch (BufferUnderflowException exception) {
+			throw new OrigamiDocumentFormatException("The document ends unexpectedly");
+		}
+		// Return the resulting data structure.
+		return builder.build();
+	}
+	/**
+	 * Reads an origami document from the passed input stream. The passed builder receives the data in the document, and flows
+	 * it into some kind of data structure. Said "some kind of data structure" is returned.
+	 */
+	public Object read(InputStream inputStream, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		// Read the entire input stream, which also closes it, and read the document.
+		return read(Streams.readFully(inputStream), builder);
+	}
+	/**
+	 * Reads the two joined 12-bit coordinates at the passed position in the passed buffer, and checks whether they are within
+	 * bounds.
+	 */
+	private static final int readCoordinates(ByteBuffer buffer, int position) throws OrigamiDocumentFormatException {
+		if (position + 3 > buffer.limit()) {
+			throw new BufferUnderflowException();
+		}
+		final int result = ((buffer.get(position) & 0xFF) << 16) |
+				((buffer.get(position + 1) & 0xFF) << 8) |
+				((buffer.get(position + 2) & 0xFF) << 0);
+		if (((result >>> 12) & 0xFFF) > 0x800 ||
+				((result >>> 0) & 0xFFF) > 0x800) {
+			throw new OrigamiDocumentFormatException("Coordinates have an unexpected value");
+		}
+		return result;
+	}
+	/**
+	 * Reads the document from the passed buffer, starting at its position, and pushes the data to passed builder.
+	 */
+	protected void readDocument(ByteBuffer buffer, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException {
+		readHeader(buffer);
+		// Read the frames.
+		for (int frameCount = buffer.getShort() & 0xFFFF; 0 != frameCount; frameCount--) {
+			final FrameBuilder frameBuilder = builder.createFrameBuilder();
+			readFrame(buffer, frameBuilder);
+			frameBuilder.build();
+		}
+	}
+	/**
+	 * Reads only the frame with the passed index from the document in the passed buffer, using the passed index of that
+	 * document, and pushes the data to the passed builder. The build method of the frame builder is not called. The position
+	 * and limit of the buffer are not changed.
+	 */
+	public void readFrame(ByteBuffer buffer, FrameIndex index, int frameIndex, FrameBuilder builder)
+			throws OrigamiDocumentFormatException {
+		try {
+			readFrame(index.sliceFrame(buffer, frameIndex), builder);
+		} catch (BufferUnderflowException exception) {
+			throw new OrigamiDocumentFormatException("The frame ends unexpectedly");
+		}
+	}
+	/**
+	 * Reads the frame from the passed buffer, starting at its position, and pushes the data to passed builder.
+	 */
+	protected void readFrame(ByteBuffer buffer, FrameBuilder builder) throws OrigamiDocumentFormatException {
+		// Read the polygons.
+		for (int polygonCount = buffer.getShort() & 0xFFFF; 0 != polygonCount; polygonCount--) {
+			final PolygonBuilder polygonBuilder = builder.createPolygonBuilder();
+			readPolygon(buffer, polygonBuilder);
+			polygonBuilder.build();
+		}
+	}
+	/**
+	 * Reads and checks the header of the document from the passed buffer, starting at its position.
+	 */
+	private static final void readHeader(ByteBuffer buffer) throws OrigamiDocumentFormatException {
+		for (final byte magicByte : MAGIC) {
+			if (magicByte != buffer.get()) {
+				throw new OrigamiDocumentFormatException("The document is not a binary origami document");
+			}
+		}
+		if (VERSION != (buffer.get() & 0xFF)) {
+			throw new OrigamiDocumentFormatException("The version of the binary origami document is not supported");
+		}
+	}
+	/**
+	 * Reads the polygon from the passed buffer, starting at its position, and pushes the data to passed builder.
+	 */
+	protected void readPolygon(ByteBuffer buffer, PolygonBuilder builder) throws OrigamiDocumentFormatException {
+		// Read the fill, and pass the two channels to the builder.
+		{
+			final int lightness = buffer.get() & 0xFF;
+			builder.setFill(lightness,
+					buffer.get() & 0xFF);
+		}
+		// Read the instructions. The instruction types are in one section, and the coordinates in the section right after it.
+		{
+			final int instructionCount = buffer.getShort() & 0xFFFF;
+			final int instructionTypesPosition = buffer.position();
+			int coordinatesPosition = instructionTypesPosition + ((instructionCount + 3) >>> 2);
+			if (coordinatesPosition > buffer.limit()) {
+				throw new BufferUnderflowException();
+			}
+			for (int index = 0; instructionCount != index; index++) {
+				switch ((buffer.get(instructionTypesPosition + (index >>> 2)) >>> ((index & 3) << 1)) & 3) {
+				case INSTRUCTION_TYPE_MOVE:
+				{
+					final int coordinates = readCoordinates(buffer, coordinatesPosition);
+					coordinatesPosition += 3;
+					builder.addMove(((coordinates >>> 12) & 0xFFF) / 2048f,
+							((coordinates >>> 0) & 0xFFF) / 2048f,
+							(coordinates >>> 12) & 0xFFF, (coordinates >>> 0) & 0xFFF);
+					break;
+				}
+				case INSTRUCTION_TYPE_LINE:
+				{
+					final int coordinates = readCoordinates(buffer, coordinatesPosition);
+					coordinatesPosition += 3;
+					builder.addLine(((coordinates >>> 12) & 0xFFF) / 2048f,
+							((coordinates >>> 0) & 0xFFF) / 2048f,
+							(coordinates >>> 12) & 0xFFF, (coordinates >>> 0) & 0xFFF);
+					break;
+				}
+				case INSTRUCTION_TYPE_CLOSE:
+					builder.addClose();
+					break;
+				default:
+					throw new OrigamiDocumentFormatException("Unexpected instruction type");
+				}
+			}
+			buffer.position(coordinatesPosition);
+		}
+		// (A polygon implicitly ends with a "close" instruction.)
+		builder.addClose();
+	}
+	/**
+	 * Advances the position of the passed buffer past the frame that starts at said position, without decoding it.
+	 */
+	private static final void skipFrame(ByteBuffer buffer) {
+		for (int polygonCount = buffer.getShort() & 0xFFFF; 0 != polygonCount; polygonCount--) {
+			// Skip the fill.
+			buffer.getShort();
+			// Count the instructions which have coordinates, and skip both sections.
+			final int instructionCount = buffer.getShort() & 0xFFFF;
+			final int instructionTypesPosition = buffer.position();
+			if (instructionTypesPosition + ((instructionCount + 3) >>> 2) > buffer.limit()) {
+				throw new BufferUnderflowException();
+			}
+			int coordinatesCount = 0;
+			for (int index = 0; instructionCount != index; index++) {
+				if (INSTRUCTION_TYPE_CLOSE != ((buffer.get(instructionTypesPosition + (index >>> 2)) >>> ((index & 3) << 1)) & 3)) {
+					coordinatesCount++;
+				}
+			}
+			final int polygonEnd = instructionTypesPosition + ((instructionCount + 3) >>> 2) + coordinatesCount * 3;
+			if (polygonEnd > buffer.limit()) {
+				throw new BufferUnderflowException();
+			}
+			buffer.position(polygonEnd);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package org.ilumbo.origami.reading;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream which reads the bytes of a buffer, from its position up to its limit. The position of the buffer advances
+ * as bytes are read. No bytes are copied other than those which are read.
+ */
+/* package */ final class ByteBufferInputStream extends InputStream {
+	/**
+	 * The buffer from which the bytes are read.
+	 */
+	private final ByteBuffer buffer;
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+	@Override
+	public final int available() {
+		return buffer.remaining();
+	}
+	@Override
+	public final int read() {
+		if (false == buffer.hasRemaining()) {
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+	@Override
+	public final int read(byte[] bytes, int offset, int length) {
+		if (0 == length) {
+			return 0;
+		}
+		if (false == buffer.hasRemaining()) {
+			return -1;
+		}
+		final int result = Math.min(length, buffer.remaining());
+		buffer.get(bytes, offset, result);
+		return result;
+	}
+	@Override
+	public final long skip(long length) {
+		final int result = (int) Math.min(Math.max(length, 0), buffer.remaining());
+		buffer.position(buffer.position() + result);
+		return result;
+	}
+}
@@ -0,0 +1,12 @@
+package org.ilumbo.origami.reading;
+
+/**
+ * An origami builder of which the frame builders may receive data on different threads at the same time. The frames appear
+ * in the resulting structure in the order in which their frame builders were created, regardless of the order in which they
+ * were built.
+ *
+ * The frame builders must still be created on one thread, and the polygons of one frame must still be built one after
+ * another. The build method of this builder must only be called after all of the frame builders have been built.
+ */
+public interface ConcurrentOrigamiBuilder<Result> extends OrigamiBuilder<Result> {
+}
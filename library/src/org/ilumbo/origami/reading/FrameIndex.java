@@ -0,0 +1,136 @@
+package org.ilumbo.origami.reading;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The byte offset and length of every frame in an origami document, which allows a reader to decode individual frames without
+ * decoding the frames before them. Offsets are relative to the start of the document.
+ *
+ * A frame index is created by {@link OrigamiReader#createFrameIndex(ByteBuffer)} or
+ * {@link BinaryOrigamiReader#createFrameIndex(ByteBuffer)}. As creating one requires the structure of the entire document to
+ * be scanned, it makes sense to create it when the document is first read and store it next to the document using
+ * {@link #writeTo(OutputStream)}.
+ */
+public final class FrameIndex {
+	/**
+	 * The bytes every stored frame index starts with.
+	 */
+	private static final byte[] MAGIC = new byte[]{'O', 'F', 'I', 'X'};
+	/**
+	 * The version of the stored frame index format.
+	 */
+	private static final int VERSION = 1;
+	/**
+	 * The length of the document in bytes, which is the number of bytes from the position up to the limit of the buffer the
+	 * index was created from.
+	 */
+	private final int documentLength;
+	/**
+	 * The length of every frame in bytes.
+	 */
+	private final int[] frameLengths;
+	/**
+	 * The offset of every frame in bytes, relative to the start of the document.
+	 */
+	private final int[] frameOffsets;
+	/* package */ FrameIndex(int documentLength, int[] frameOffsets, int[] frameLengths) {
+		this.documentLength = documentLength;
+		this.frameOffsets = frameOffsets;
+		this.frameLengths = frameLengths;
+	}
+	/**
+	 * Returns the length of the document in bytes.
+	 */
+	public final int getDocumentLength() {
+		return documentLength;
+	}
+	/**
+	 * Returns the number of frames.
+	 */
+	public final int getFrameCount() {
+		return frameOffsets.length;
+	}
+	/**
+	 * Returns the length of the frame with the passed index in bytes.
+	 */
+	public final int getFrameLength(int frameIndex) {
+		return frameLengths[frameIndex];
+	}
+	/**
+	 * Returns the offset of the frame with the passed index in bytes, relative to the start of the document.
+	 */
+	public final int getFrameOffset(int frameIndex) {
+		return frameOffsets[frameIndex];
+	}
+	/**
+	 * Reads a frame index which was previously written by {@link #writeTo(OutputStream)} from the passed input stream. The
+	 * input stream is not closed. As the stored index might be damaged, an IOException is thrown if any frame lies outside
+	 * the document.
+	 */
+	public static final FrameIndex readFrom(InputStream inputStream) throws IOException {
+		final DataInputStream dataInputStream = new DataInputStream(inputStream);
+		for (final byte magicByte : MAGIC) {
+			if (magicByte != dataInputStream.readByte()) {
+				throw new IOException("The input is not a frame index");
+			}
+		}
+		if (VERSION != dataInputStream.readUnsignedByte()) {
+			throw new IOException("The version of the frame index is not supported");
+		}
+		final int documentLength = dataInputStream.readInt();
+		final int frameCount = dataInputStream.readInt();
+		// Every frame takes at least one byte, so there cannot be more frames than bytes. This also keeps a damaged count from
+		// allocating huge arrays.
+		if (documentLength < 0 || frameCount < 0 || frameCount > documentLength) {
+			throw new IOException("The frame index is damaged");
+		}
+		final int[] frameOffsets = new int[frameCount];
+		final int[] frameLengths = new int[frameCount];
+		for (int index = 0; frameCount != index; index++) {
+			final int frameOffset = frameOffsets[index] = dataInputStream.readInt();
+			final int frameLength = frameLengths[index] = dataInputStream.readInt();
+			if (frameOffset < 0 || frameLength < 0 || frameLength > documentLength - frameOffset) {
+				throw new IOException("The frame index is damaged");
+			}
+		}
+		return new FrameIndex(documentLength, frameOffsets, frameLengths);
+	}
+	/**
+	 * Returns a duplicate of the passed buffer, which contains the document this index belongs to from its position up to its
+	 * limit, with the position and limit set to the start and end of the frame with the passed index.
+	 */
+	/* package */ final ByteBuffer sliceFrame(ByteBuffer documentBuffer, int frameIndex) {
+		// An index of another document (or of an edited version of this one) would slice garbage. Such an index most likely
+		// has another length.
+		if (documentBuffer.remaining() != documentLength) {
+			throw new IllegalArgumentException("The length of the buffer does not match that of the indexed document");
+		}
+		final ByteBuffer result = documentBuffer.duplicate();
+		final int frameStart = documentBuffer.position() + frameOffsets[frameIndex];
+		result.limit(frameStart + frameLengths[frameIndex]);
+		result.position(frameStart);
+		return result;
+	}
+	/**
+	 * Writes this frame index to the passed output stream, so it can be stored next to the document it belongs to. The
+	 * output stream is not closed.
+	 */
+	public final void writeTo(OutputStream outputStream) throws IOException {
+		final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+		dataOutputStream.write(MAGIC);
+		dataOutputStream.writeByte(VERSION);
+		dataOutputStream.writeInt(documentLength);
+		final int frameCount = frameOffsets.length;
+		dataOutputStream.writeInt(frameCount);
+		for (int index = 0; frameCount != index; index++) {
+			dataOutputStream.writeInt(frameOffsets[index]);
+			dataOutputStream.writeInt(frameLengths[index]);
+		}
+		dataOutputStream.flush();
+	}
+}
@@ -0,0 +1,101 @@
+package org.ilumbo.origami.reading;
+
+/**
+ * Passes the document on to several other builders (the targets), so a document can be read into all of them while it is
+ * parsed only once. Every call is forwarded to the targets in the order in which they were passed.
+ *
+ * The result is an array which contains the results of the targets, in that same order.
+ */
+public final class MulticastOrigamiBuilder implements OrigamiBuilder<Object[]> {
+	private static final class MulticastFrameBuilder implements FrameBuilder {
+		private static final class MulticastPolygonBuilder implements PolygonBuilder {
+			/**
+			 * The polygon builders of the targets.
+			 */
+			private final PolygonBuilder[] targets;
+			public MulticastPolygonBuilder(PolygonBuilder[] targets) {
+				this.targets = targets;
+			}
+			@Override
+			public final void addClose() {
+				for (final PolygonBuilder target : targets) {
+					target.addClose();
+				}
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				for (final PolygonBuilder target : targets) {
+					target.addLine(x, y, exactX, exactY);
+				}
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				for (final PolygonBuilder target : targets) {
+					target.addMove(x, y, exactX, exactY);
+				}
+			}
+			@Override
+			public final void build() {
+				for (final PolygonBuilder target : targets) {
+					target.build();
+				}
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				for (final PolygonBuilder target : targets) {
+					target.setFill(lightness, alpha);
+				}
+			}
+		}
+		/**
+		 * The frame builders of the targets.
+		 */
+		private final FrameBuilder[] targets;
+		public MulticastFrameBuilder(FrameBuilder[] targets) {
+			this.targets = targets;
+		}
+		@Override
+		public final void build() {
+			for (final FrameBuilder target : targets) {
+				target.build();
+			}
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			final PolygonBuilder[] polygonBuilders = new PolygonBuilder[targets.length];
+			for (int index = 0; targets.length != index; index++) {
+				polygonBuilders[index] = targets[index].createPolygonBuilder();
+			}
+			return new MulticastPolygonBuilder(polygonBuilders);
+		}
+	}
+	/**
+	 * The builders to which the document is passed.
+	 */
+	private final OrigamiBuilder<?>[] targets;
+	/**
+	 * Creates a multicast builder which passes the document on to the passed targets.
+	 */
+	public MulticastOrigamiBuilder(OrigamiBuilder<?>... targets) {
+		if (0 == targets.length) {
+			throw new IllegalArgumentException("At least one target is required");
+		}
+		this.targets = targets.clone();
+	}
+	@Override
+	public final Object[] build() {
+		final Object[] result = new Object[targets.length];
+		for (int index = 0; targets.length != index; index++) {
+			result[index] = targets[index].build();
+		}
+		return result;
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		final FrameBuilder[] frameBuilders = new FrameBuilder[targets.length];
+		for (int index = 0; targets.length != index; index++) {
+			frameBuilders[index] = targets[index].createFrameBuilder();
+		}
+		return new MulticastFrameBuilder(frameBuilders);
+	}
+}
\ No newline at end of file
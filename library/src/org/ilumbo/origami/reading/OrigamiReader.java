@@ -2,6 +2,7 @@ package org.ilumbo.origami.reading;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
 import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
@@ -22,6 +23,9 @@ public class OrigamiReader {
 	 */
 	public final static class OrigamiDocumentFormatException extends Exception {
 		private static final long serialVersionUID = 0x5044C6586A8302E3L;
+		public OrigamiDocumentFormatException(String detailMessage) {
+			super(detailMessage);
+		}
 		public OrigamiDocumentFormatException(XmlPullParserException cause) {
 			super(cause);
 		}
@@ -52,13 +56,24 @@ public class OrigamiReader {
 	 * Creates a new XML pull parser.
 	 */
 	protected static XmlPullParser createXmlPullParser() {
+		try {
+			return createXmlPullParserFactory()
+					.newPullParser();
+		} catch (XmlPullParserException exception) {
+			throw new RuntimeException(exception);
+		}
+	}
+	/**
+	 * Creates a new XML pull parser factory, which creates parsers with the features the readers expect.
+	 */
+	protected static XmlPullParserFactory createXmlPullParserFactory() {
 		final XmlPullParserFactory factory;
 		try {
 			factory = XmlPullParserFactory.newInstance();
 		} catch (XmlPullParserException exception) {
 			throw new RuntimeException(exception);
 		}
-		// Set the features of the resulting parser.
+		// Set the features of the parsers the factory creates.
 		try {
 			factory.setFeature(XmlPullParser.FEATURE_PROCESS_DOCDECL, false);
 			factory.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
@@ -68,19 +83,42 @@ public class OrigamiReader {
 		} catch (XmlPullParserException exception) {
 			throw new RuntimeException(exception);
 		}
-		try {
-			return factory.newPullParser();
-		} catch (XmlPullParserException exception) {
-			throw new RuntimeException(exception);
-		}
+		return factory;
+	}
+	/**
+	 * Creates an index of the frames in the document in the passed buffer, from its position up to its limit. The contents of
+	 * the frames are not decoded. The position and limit of the buffer are not changed.
+	 */
+	public FrameIndex createFrameIndex(ByteBuffer buffer) throws OrigamiDocumentFormatException {
+		// An XML pull parser does not expose byte offsets. Use the scanner, which does.
+		return new OrigamiScanner(buffer)
+				.indexDocument();
+	}
+	/**
+	 * Returns an XML pull parser to read one document (or frame) with on the calling thread. This implementation creates a new
+	 * parser every time. Subclasses may re-use parsers, as long as one parser is never used by two threads at the same time.
+	 */
+	protected XmlPullParser obtainXmlPullParser() {
+		return createXmlPullParser();
+	}
+	/**
+	 * Reads an origami document from the passed buffer, from its position up to its limit. The position and limit of the
+	 * buffer are not changed, which means one buffer (such as a mapping of a file) can be shared between threads that each read
+	 * from their own duplicate or slice of it. The buffer may be direct. The passed builder receives the data in the document,
+	 * and flows it into some kind of data structure. Said "some kind of data structure" is returned.
+	 */
+	public Object read(ByteBuffer buffer, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		// Read the document through an input stream which reads straight from (a duplicate of) the buffer, avoiding a copy of
+		// the entire document.
+		return read(new ByteBufferInputStream(buffer.duplicate()), builder);
 	}
 	/**
 	 * Reads an origami document from the passed input stream. The passed builder receives the data in the document, and flows
 	 * it into some kind of data structure. Said "some kind of data structure" is returned.
 	 */
 	public Object read(InputStream inputStream, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
-		// Create the parser.
-		final XmlPullParser parser = createXmlPullParser();
+		// Obtain the parser.
+		final XmlPullParser parser = obtainXmlPullParser();
 		try {
 			// Inject the input stream into the parser.
 			parser.setInput(inputStream, "UTF_8");
@@ -102,6 +140,28 @@ public class OrigamiReader {
 		// Return the resulting data structure.
 		return builder.build();
 	}
+	/**
+	 * Reads only the frame with the passed index from the document in the passed buffer, using the passed index of that
+	 * document, and pushes the data to the passed builder. The build method of the frame builder is not called. The position
+	 * and limit of the buffer are not changed.
+	 */
+	public void readFrame(ByteBuffer buffer, FrameIndex index, int frameIndex, FrameBuilder builder)
+			throws OrigamiDocumentFormatException, IOException {
+		// Obtain the parser.
+		final XmlPullParser parser = obtainXmlPullParser();
+		try {
+			// Inject the bytes of the frame into the parser. (The frame element is a well-formed document by itself.)
+			parser.setInput(new ByteBufferInputStream(index.sliceFrame(buffer, frameIndex)), "UTF_8");
+			// Read the very first element start tag.
+			do {
+				parser.next();
+			} while (XmlPullParser.START_DOCUMENT == parser.getEventType());
+			// Read the frame.
+			readFrame(parser, builder);
+		} catch (XmlPullParserException exception) {
+			throw new OrigamiDocumentFormatException(exception);
+		}
+	}
 	/**
 	 * Reads the document from a parser which has just found an "origami" element start tag, and pushes the data to passed
 	 * builder.
@@ -0,0 +1,48 @@
+package org.ilumbo.origami.reading;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+/**
+ * Reads origami documents exactly like its superclass, but is meant to read many of them. The XML pull parser factory is
+ * created once, and every thread that reads through this session re-uses one parser. This saves the set-up which would
+ * otherwise be repeated for every document.
+ *
+ * A session is thread-safe. However, a document must not be read from within a builder which is receiving the data of another
+ * document read through the same session on the same thread, as the two would share a parser. Note that a parser may keep a
+ * reference to the input of the document it last read, until it reads the next one.
+ */
+public class OrigamiReaderSession extends OrigamiReader {
+	/**
+	 * The factory which creates the parsers.
+	 */
+	private final XmlPullParserFactory factory;
+	/**
+	 * The parser of every thread that has read through this session.
+	 */
+	private final ThreadLocal<XmlPullParser> parsers;
+	public OrigamiReaderSession() {
+		factory = createXmlPullParserFactory();
+		parsers = new ThreadLocal<XmlPullParser>();
+	}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected XmlPullParser obtainXmlPullParser() {
+		XmlPullParser result = parsers.get();
+		if (null == result) {
+			// Factories are not guaranteed to be thread-safe.
+			synchronized (factory) {
+				try {
+					result = factory.newPullParser();
+				} catch (XmlPullParserException exception) {
+					throw new RuntimeException(exception);
+				}
+			}
+			parsers.set(result);
+		}
+		return result;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,514 @@
+package org.ilumbo.origami.reading;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder.PolygonBuilder;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+
+/**
+ * Scans the bytes of an XML origami document. Unlike a general XML parser, this scanner only understands the fixed grammar of
+ * origami documents. In return, it does not allocate any objects while scanning (unless it runs into a format error).
+ *
+ * A scanner has a position, and can therefore only be used by one thread at a time. Multiple scanners may share the same
+ * underlying bytes, as scanners never change the position or limit of the buffer they are scanning.
+ */
+/* package */ final class OrigamiScanner {
+	/**
+	 * The instruction type for closes.
+	 */
+	private static final byte INSTRUCTION_TYPE_CLOSE = 2;
+	/**
+	 * The instruction type for lines.
+	 */
+	private static final byte INSTRUCTION_TYPE_LINE = 1;
+	/**
+	 * The instruction type for moves.
+	 */
+	private static final byte INSTRUCTION_TYPE_MOVE = 0;
+	/**
+	 * The name of the "close" element.
+	 */
+	private static final byte[] NAME_CLOSE = new byte[]{'c', 'l', 'o', 's', 'e'};
+	/**
+	 * The name of the "fill" attribute.
+	 */
+	private static final byte[] NAME_FILL = new byte[]{'f', 'i', 'l', 'l'};
+	/**
+	 * The name of the "frame" element.
+	 */
+	private static final byte[] NAME_FRAME = new byte[]{'f', 'r', 'a', 'm', 'e'};
+	/**
+	 * The name of the "line" element.
+	 */
+	private static final byte[] NAME_LINE = new byte[]{'l', 'i', 'n', 'e'};
+	/**
+	 * The name of the "move" element.
+	 */
+	private static final byte[] NAME_MOVE = new byte[]{'m', 'o', 'v', 'e'};
+	/**
+	 * The name of the "origami" element.
+	 */
+	private static final byte[] NAME_ORIGAMI = new byte[]{'o', 'r', 'i', 'g', 'a', 'm', 'i'};
+	/**
+	 * The name of the "polygon" element.
+	 */
+	private static final byte[] NAME_POLYGON = new byte[]{'p', 'o', 'l', 'y', 'g', 'o', 'n'};
+	/**
+	 * The tag type for element end tags.
+	 */
+	private static final byte TAG_TYPE_END = 1;
+	/**
+	 * The tag type for element start tags.
+	 */
+	private static final byte TAG_TYPE_START = 0;
+	/**
+	 * The buffer that contains the bytes of the document.
+	 */
+	private final ByteBuffer buffer;
+	/**
+	 * Whether the element start tag which was scanned most recently is an empty-element tag, such as "&lt;close/&gt;".
+	 */
+	private boolean emptyElementTag;
+	/**
+	 * The position in the buffer beyond which no bytes are scanned.
+	 */
+	private final int limit;
+	/**
+	 * The position in the buffer of the next byte to be scanned.
+	 */
+	private int position;
+	/**
+	 * Creates a scanner which scans the passed buffer, from its position up to its limit.
+	 */
+	public OrigamiScanner(ByteBuffer buffer) {
+		this(buffer, buffer.position(), buffer.limit());
+	}
+	/**
+	 * Creates a scanner which scans the passed buffer, from the passed position up to the passed limit.
+	 */
+	public OrigamiScanner(ByteBuffer buffer, int position, int limit) {
+		this.buffer = buffer;
+		this.position = position;
+		this.limit = limit;
+	}
+	/**
+	 * Creates an exception that describes a problem at the current position.
+	 */
+	private final OrigamiDocumentFormatException createFormatException(String message) {
+		return new OrigamiDocumentFormatException(new StringBuilder(message.length() + 16)
+				.append(message)
+				.append(" (at byte ")
+				.append(position)
+				.append(')')
+				.toString());
+	}
+	/**
+	 * Scans the rest of an element end tag of which the name has just been scanned.
+	 */
+	private final void finishEndTag() throws OrigamiDocumentFormatException {
+		skipWhitespace();
+		if ('>' != next()) {
+			throw createFormatException("The end of an element end tag is expected, but not found");
+		}
+	}
+	/**
+	 * Scans the attributes and the rest of an element start tag of which the name has just been scanned. If the fill is
+	 * requested, the value of the "fill" attribute is returned. Otherwise, -1 is returned.
+	 */
+	private final int finishStartTag(boolean scanFill) throws OrigamiDocumentFormatException {
+		int result = -1;
+		while (true) {
+			skipWhitespace();
+			switch (peek()) {
+			case '>':
+				position++;
+				emptyElementTag = false;
+				return result;
+			case '/':
+				position++;
+				if ('>' != next()) {
+					throw createFormatException("The end of an empty-element tag is expected, but not found");
+				}
+				emptyElementTag = true;
+				return result;
+			default:
+			{
+				// Scan the attribute name, and the equals sign after it.
+				final boolean isFill = scanFill && scanName(NAME_FILL);
+				while (false == isWhitespace(peek()) && '=' != peek()) {
+					position++;
+				}
+				skipWhitespace();
+				if ('=' != next()) {
+					throw createFormatException("An equals sign is expected, but not found");
+				}
+				skipWhitespace();
+				// Scan the attribute value.
+				final byte quote = next();
+				if ('"' != quote && '\'' != quote) {
+					throw createFormatException("A quotation mark is expected, but not found");
+				}
+				if (isFill) {
+					result = scanHexadecimalInteger();
+					if (quote != next()) {
+						throw createFormatException("A hexadecimal integer is expected, but not found");
+					}
+				} else {
+					while (quote != next()) {
+					}
+				}
+				break;
+			}
+			}
+		}
+	}
+	/**
+	 * Scans the structure of the document, starting at the current position which should be before the "origami" element
+	 * start tag, and returns an index of the frames in it. The contents of the frames are skipped rather than scanned.
+	 */
+	public final FrameIndex indexDocument() throws OrigamiDocumentFormatException {
+		final int documentStart = position;
+		int[] frameOffsets = new int[16];
+		int[] frameLengths = new int[16];
+		int frameCount = 0;
+		if (TAG_TYPE_START != nextTag(true)) {
+			throw createFormatException("No element end tag is expected");
+		}
+		requireName(NAME_ORIGAMI);
+		finishStartTag(false);
+		if (false == emptyElementTag) {
+			// Find the frames.
+			while (TAG_TYPE_START == nextTag(true)) {
+				// (The position is right after the "<" of the element start tag.)
+				final int frameStart = position - 1;
+				requireName(NAME_FRAME);
+				finishStartTag(false);
+				if (false == emptyElementTag) {
+					skipPastEndTag(NAME_FRAME);
+				}
+				if (frameOffsets.length == frameCount) {
+					frameOffsets = Arrays.copyOf(frameOffsets, frameCount << 1);
+					frameLengths = Arrays.copyOf(frameLengths, frameCount << 1);
+				}
+				frameOffsets[frameCount] = frameStart - documentStart;
+				frameLengths[frameCount] = position - frameStart;
+				frameCount++;
+			}
+			requireName(NAME_ORIGAMI);
+			finishEndTag();
+		}
+		return new FrameIndex(limit - documentStart,
+				Arrays.copyOf(frameOffsets, frameCount), Arrays.copyOf(frameLengths, frameCount));
+	}
+	/**
+	 * Returns whether the passed byte is XML whitespace.
+	 */
+	private static final boolean isWhitespace(byte value) {
+		switch (value) {
+		case ' ':
+		case '\t':
+		case '\r':
+		case '\n':
+			return true;
+		default:
+			return false;
+		}
+	}
+	/**
+	 * Returns the next byte, and advances the position.
+	 */
+	private final byte next() throws OrigamiDocumentFormatException {
+		if (limit == position) {
+			throw createFormatException("The document ends unexpectedly");
+		}
+		return buffer.get(position++);
+	}
+	/**
+	 * Scans up to and including the start of the next element start or end tag, and returns its type. If character data is
+	 * not allowed, finding any throws an exception. Comments and processing instructions are skipped.
+	 */
+	private final byte nextTag(boolean characterDataAllowed) throws OrigamiDocumentFormatException {
+		while (true) {
+			if ('<' != peek()) {
+				if (false == characterDataAllowed) {
+					throw createFormatException("No text is expected");
+				}
+				position++;
+				continue;
+			}
+			position++;
+			switch (peek()) {
+			case '/':
+				position++;
+				return TAG_TYPE_END;
+			case '?':
+				// Skip the processing instruction (or XML declaration).
+				skipPast('?', '>');
+				break;
+			case '!':
+				position++;
+				if ('-' == peek()) {
+					// Skip the comment. The first pair of hyphens is that of the start of the comment.
+					skipPast('-', '-');
+					skipPast('-', '-');
+					skipPast('>');
+				} else if ('[' == peek()) {
+					if (false == characterDataAllowed) {
+						throw createFormatException("No text is expected");
+					}
+					// Skip the CDATA section.
+					skipPast(']', ']');
+					skipPast('>');
+				} else {
+					// Skip the document type declaration.
+					skipPast('>');
+				}
+				break;
+			default:
+				return TAG_TYPE_START;
+			}
+		}
+	}
+	/**
+	 * Returns the next byte, without advancing the position.
+	 */
+	private final byte peek() throws OrigamiDocumentFormatException {
+		if (limit == position) {
+			throw createFormatException("The document ends unexpectedly");
+		}
+		return buffer.get(position);
+	}
+	/**
+	 * Scans the passed element name, or throws an exception if another name is found.
+	 */
+	private final void requireName(byte[] name) throws OrigamiDocumentFormatException {
+		if (false == scanName(name)) {
+			throw createFormatException("Unexpected element name");
+		}
+	}
+	/**
+	 * Scans the document, starting at the current position which should be before the "origami" element start tag, and
+	 * pushes the data to the passed builder.
+	 */
+	public final void scanDocument(OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException {
+		if (TAG_TYPE_START != nextTag(true)) {
+			throw createFormatException("No element end tag is expected");
+		}
+		requireName(NAME_ORIGAMI);
+		finishStartTag(false);
+		if (emptyElementTag) {
+			return;
+		}
+		// Scan the frames.
+		while (TAG_TYPE_START == nextTag(true)) {
+			requireName(NAME_FRAME);
+			finishStartTag(false);
+			final FrameBuilder frameBuilder = builder.createFrameBuilder();
+			scanFrame(frameBuilder);
+			frameBuilder.build();
+		}
+		requireName(NAME_ORIGAMI);
+		finishEndTag();
+	}
+	/**
+	 * Scans the frame from the current position, which should be right after a "frame" element start tag, and pushes the
+	 * data to the passed builder.
+	 */
+	private final void scanFrame(FrameBuilder builder) throws OrigamiDocumentFormatException {
+		if (emptyElementTag) {
+			return;
+		}
+		// Scan the polygons.
+		while (TAG_TYPE_START == nextTag(true)) {
+			requireName(NAME_POLYGON);
+			final int fill = finishStartTag(true);
+			if (-1 == fill) {
+				throw createFormatException("A hexadecimal integer is expected, but not found");
+			}
+			final PolygonBuilder polygonBuilder = builder.createPolygonBuilder();
+			scanPolygon(polygonBuilder, fill);
+			polygonBuilder.build();
+		}
+		requireName(NAME_FRAME);
+		finishEndTag();
+	}
+	/**
+	 * Scans the frame from the current position, which should be before a "frame" element start tag, and pushes the data to
+	 * the passed builder. The build method of the frame builder is not called.
+	 */
+	public final void scanFrameElement(FrameBuilder builder) throws OrigamiDocumentFormatException {
+		if (TAG_TYPE_START != nextTag(true)) {
+			throw createFormatException("No element end tag is expected");
+		}
+		requireName(NAME_FRAME);
+		finishStartTag(false);
+		scanFrame(builder);
+	}
+	/**
+	 * Scans a hexadecimal integer, which cannot exceed 0x7FFFFFFF.
+	 */
+	private final int scanHexadecimalInteger() throws OrigamiDocumentFormatException {
+		int result = 0;
+		int digitCount = 0;
+		while (true) {
+			final byte digit = peek();
+			final int digitValue;
+			if (digit >= '0' && digit <= '9') {
+				digitValue = digit - '0';
+			} else if (digit >= 'a' && digit <= 'f') {
+				digitValue = digit - ('a' - 0xA);
+			} else if (digit >= 'A' && digit <= 'F') {
+				digitValue = digit - ('A' - 0xA);
+			} else {
+				break;
+			}
+			if (result > 0x07FFFFFF) {
+				throw createFormatException("A hexadecimal integer is expected, but not found");
+			}
+			result = (result << 4) | digitValue;
+			digitCount++;
+			position++;
+		}
+		if (0 == digitCount) {
+			throw createFormatException("A hexadecimal integer is expected, but not found");
+		}
+		return result;
+	}
+	/**
+	 * Scans the passed name if it is at the current position, and returns true. If the passed name is not at the current
+	 * position, the position is not advanced and false is returned.
+	 */
+	private final boolean scanName(byte[] name) throws OrigamiDocumentFormatException {
+		final int nameLength = name.length;
+		if (position + nameLength >= limit) {
+			return false;
+		}
+		for (int index = 0; nameLength != index; index++) {
+			if (name[index] != buffer.get(position + index)) {
+				return false;
+			}
+		}
+		// Ensure the name ends here, and this is not merely the start of a longer name.
+		switch (buffer.get(position + nameLength)) {
+		case ' ':
+		case '\t':
+		case '\r':
+		case '\n':
+		case '/':
+		case '>':
+		case '=':
+			position += nameLength;
+			return true;
+		default:
+			return false;
+		}
+	}
+	/**
+	 * Scans the polygon from the current position, which should be right after a "polygon" element start tag, and pushes the
+	 * data to the passed builder.
+	 */
+	private final void scanPolygon(PolygonBuilder builder, int fill) throws OrigamiDocumentFormatException {
+		// Separate the two 8-bit channels of the fill, and pass them to the builder.
+		builder.setFill((fill >>> 8) & 0xFF,
+				(fill >>> 0) & 0xFF);
+		// Scan the instructions.
+		if (false == emptyElementTag) {
+			while (TAG_TYPE_START == nextTag(false)) {
+				// Determine what type of instruction is going to be scanned.
+				final byte instructionType;
+				if (scanName(NAME_MOVE)) {
+					instructionType = INSTRUCTION_TYPE_MOVE;
+				} else if (scanName(NAME_LINE)) {
+					instructionType = INSTRUCTION_TYPE_LINE;
+				} else if (scanName(NAME_CLOSE)) {
+					instructionType = INSTRUCTION_TYPE_CLOSE;
+				} else {
+					throw createFormatException("Unexpected element name");
+				}
+				finishStartTag(false);
+				if (INSTRUCTION_TYPE_CLOSE == instructionType) {
+					if (false == emptyElementTag) {
+						if (TAG_TYPE_END != nextTag(false)) {
+							throw createFormatException("No element start tag is expected");
+						}
+						requireName(NAME_CLOSE);
+						finishEndTag();
+					}
+					builder.addClose();
+					continue;
+				}
+				if (emptyElementTag) {
+					throw createFormatException("A hexadecimal integer is expected, but not found");
+				}
+				// The text should be coordinates for the "move" or "line" instruction. Scan 'em.
+				final int coordinates = scanHexadecimalInteger();
+				if (TAG_TYPE_END != nextTag(false)) {
+					throw createFormatException("No element start tag is expected");
+				}
+				// Separate the two royal 11-bit coordinates, which are joined together in the integer above.
+				final int exactX = (coordinates >>> 12) & 0xFFF;
+				final int exactY = (coordinates >>> 0) & 0xFFF;
+				if (exactX > 0x800 || exactY > 0x800) {
+					throw createFormatException("A hexadecimal integer has an unexpected value");
+				}
+				// Add the instruction to the polygon builder.
+				if (INSTRUCTION_TYPE_MOVE == instructionType) {
+					requireName(NAME_MOVE);
+					finishEndTag();
+					builder.addMove(exactX / 2048f, exactY / 2048f, exactX, exactY);
+				} else {
+					requireName(NAME_LINE);
+					finishEndTag();
+					builder.addLine(exactX / 2048f, exactY / 2048f, exactX, exactY);
+				}
+			}
+			requireName(NAME_POLYGON);
+			finishEndTag();
+		}
+		// (A polygon implicitly ends with a "close" instruction.)
+		builder.addClose();
+	}
+	/**
+	 * Advances the position until the passed byte has been scanned.
+	 */
+	private final void skipPast(char value) throws OrigamiDocumentFormatException {
+		while (value != next()) {
+		}
+	}
+	/**
+	 * Advances the position until the passed pair of bytes has been scanned.
+	 */
+	private final void skipPast(char firstValue, char secondValue) throws OrigamiDocumentFormatException {
+		skipPast(firstValue);
+		while (secondValue != peek()) {
+			skipPast(firstValue);
+		}
+		position++;
+	}
+	/**
+	 * Advances the position until an element end tag with the passed name has been scanned, without scanning anything in
+	 * between.
+	 */
+	private final void skipPastEndTag(byte[] name) throws OrigamiDocumentFormatException {
+		while (true) {
+			skipPast('<');
+			if ('/' == peek()) {
+				position++;
+				if (scanName(name)) {
+					finishEndTag();
+					return;
+				}
+			}
+		}
+	}
+	/**
+	 * Advances the position past any whitespace.
+	 */
+	private final void skipWhitespace() throws OrigamiDocumentFormatException {
+		while (isWhitespace(peek())) {
+			position++;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,168 @@
+package org.ilumbo.origami.reading;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.ilumbo.origami.packing.OrigamiPacker;
+import org.ilumbo.origami.packing.PackedOrigami;
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
+import org.ilumbo.origami.reading.OrigamiReader.OrigamiDocumentFormatException;
+
+/**
+ * Reads origami documents, decoding the frames in parallel on an executor. The document is split at frame boundaries using a
+ * {@link FrameIndex}, and every frame is decoded by its own task.
+ *
+ * If the builder is a {@link ConcurrentOrigamiBuilder}, the frame builders receive their data on the threads of the executor
+ * directly. Otherwise, the frames are decoded into packed origamis on the threads of the executor, and replayed into the
+ * builder on the calling thread in the original order. Either way, the build method of the builder is called on the calling
+ * thread once all of the frames are in.
+ *
+ * A parallel reader does not have any internal state that would make it unsafe to re-use when reading multiple documents,
+ * even at the same time.
+ *
+ * The calling thread blocks until all of the frames have been decoded, without letting the executor know. Therefore, this
+ * reader must not be used from a task that is running on its own executor, not even if that executor is a fork-join pool: if
+ * every thread of the executor is waiting, the frames are never decoded.
+ */
+public class ParallelOrigamiReader {
+	/**
+	 * A task that decodes one frame.
+	 */
+	private static final class FrameTask implements Runnable {
+		/**
+		 * The buffer which contains the document.
+		 */
+		private final ByteBuffer buffer;
+		/**
+		 * The builder which receives the data of the frame.
+		 */
+		private final FrameBuilder builder;
+		/**
+		 * The exception or error that was thrown by the first task of the document that failed, if any.
+		 */
+		private final AtomicReference<Throwable> failure;
+		/**
+		 * The index of the frame in the document.
+		 */
+		private final int frameIndex;
+		/**
+		 * The reader which decodes the frame.
+		 */
+		private final OrigamiReader frameReader;
+		/**
+		 * The index of the frames in the document.
+		 */
+		private final FrameIndex index;
+		/**
+		 * The latch which is counted down when this task completes, whether successfully or not.
+		 */
+		private final CountDownLatch latch;
+		public FrameTask(OrigamiReader frameReader, ByteBuffer buffer, FrameIndex index, int frameIndex, FrameBuilder builder,
+				CountDownLatch latch, AtomicReference<Throwable> failure) {
+			this.frameReader = frameReader;
+			this.buffer = buffer;
+			this.index = index;
+			this.frameIndex = frameIndex;
+			this.builder = builder;
+			this.latch = latch;
+			this.failure = failure;
+		}
+		@Override
+		public final void run() {
+			try {
+				frameReader.readFrame(buffer, index, frameIndex, builder);
+				builder.build();
+			} catch (Throwable throwable) {
+				// Errors are caught as well, so the calling thread does not mistake the frame for a complete one.
+				failure.compareAndSet(null, throwable);
+			} finally {
+				latch.countDown();
+			}
+		}
+	}
+	/**
+	 * The executor on which the frames are decoded.
+	 */
+	private final Executor executor;
+	/**
+	 * The reader which decodes the individual frames.
+	 */
+	private final OrigamiReader frameReader;
+	/**
+	 * Creates a parallel reader which decodes frames using the passed reader (typically a {@link ScanningOrigamiReader}) on the
+	 * passed executor (such as a fork-join pool).
+	 */
+	public ParallelOrigamiReader(OrigamiReader frameReader, Executor executor) {
+		this.frameReader = frameReader;
+		this.executor = executor;
+	}
+	/**
+	 * Waits until all of the frames have been decoded, and throws the exception or error of the first task that failed (if
+	 * any).
+	 */
+	private static final void awaitFrames(CountDownLatch latch, AtomicReference<Throwable> failure)
+			throws OrigamiDocumentFormatException, IOException {
+		try {
+			latch.await();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		final Throwable throwable = failure.get();
+		if (throwable instanceof OrigamiDocumentFormatException) {
+			throw (OrigamiDocumentFormatException) throwable;
+		} else if (throwable instanceof IOException) {
+			throw (IOException) throwable;
+		} else if (throwable instanceof RuntimeException) {
+			throw (RuntimeException) throwable;
+		} else if (throwable instanceof Error) {
+			throw (Error) throwable;
+		}
+	}
+	/**
+	 * Reads an origami document from the passed buffer, from its position up to its limit. The passed builder receives the
+	 * data in the document, and flows it into some kind of data structure. Said "some kind of data structure" is returned.
+	 */
+	public Object read(ByteBuffer buffer, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		return read(buffer, frameReader.createFrameIndex(buffer), builder);
+	}
+	/**
+	 * Reads an origami document from the passed buffer, from its position up to its limit, using the passed index of that
+	 * document. The passed builder receives the data in the document, and flows it into some kind of data structure. Said
+	 * "some kind of data structure" is returned.
+	 */
+	public Object read(ByteBuffer buffer, FrameIndex index, OrigamiBuilder<?> builder)
+			throws OrigamiDocumentFormatException, IOException {
+		final int frameCount = index.getFrameCount();
+		final CountDownLatch latch = new CountDownLatch(frameCount);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		if (builder instanceof ConcurrentOrigamiBuilder) {
+			// Create the frame builders in the original order, and let them receive their data on the executor.
+			for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+				executor.execute(new FrameTask(frameReader, buffer, index, frameIndex, builder.createFrameBuilder(), latch,
+						failure));
+			}
+			awaitFrames(latch, failure);
+		} else {
+			// Decode every frame into a packed origami of its own on the executor, and replay those in the original order.
+			final OrigamiPacker[] packers = new OrigamiPacker[frameCount];
+			for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+				executor.execute(new FrameTask(frameReader, buffer, index, frameIndex,
+						(packers[frameIndex] = new OrigamiPacker()).createFrameBuilder(), latch, failure));
+			}
+			awaitFrames(latch, failure);
+			for (int frameIndex = 0; frameCount != frameIndex; frameIndex++) {
+				final PackedOrigami packedFrame = packers[frameIndex].build();
+				final FrameBuilder frameBuilder = builder.createFrameBuilder();
+				packedFrame.replayFrame(0, frameBuilder);
+				frameBuilder.build();
+			}
+		}
+		// Return the resulting data structure.
+		return builder.build();
+	}
+}
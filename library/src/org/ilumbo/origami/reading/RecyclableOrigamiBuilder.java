@@ -0,0 +1,17 @@
+package org.ilumbo.origami.reading;
+
+/**
+ * An origami builder which can be reset once it has been built, so it can build another document. This allows the builder to
+ * keep its internal buffers (and its frame and polygon builders) across documents, rather than allocating new ones.
+ *
+ * A recyclable builder may re-use its frame and polygon builders. Therefore, a polygon builder must be built before the next
+ * one is created, and (unless the builder is also a {@link ConcurrentOrigamiBuilder}) so must a frame builder. The readers
+ * do this. A frame or polygon builder must not be used after it has been built.
+ */
+public interface RecyclableOrigamiBuilder<Result> extends OrigamiBuilder<Result> {
+	/**
+	 * Returns this builder to its initial state, so it can build another document. The structures returned by earlier calls
+	 * to the build method are not affected.
+	 */
+	public void reset();
+}
\ No newline at end of file
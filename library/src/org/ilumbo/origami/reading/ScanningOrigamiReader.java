@@ -0,0 +1,47 @@
+package org.ilumbo.origami.reading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.ilumbo.origami.reading.OrigamiBuilder.FrameBuilder;
+
+/**
+ * Reads origami documents, like its superclass. However, instead of a general XML parser this reader uses a scanner which
+ * only understands the fixed grammar of origami documents. That scanner works on the bytes of the document directly and does
+ * not allocate any objects per instruction, which makes this reader considerably faster. The validation rules are the same
+ * as those of the superclass, which remains available as the reference implementation.
+ *
+ * Origami documents are expected to be pure ASCII (or UTF-8 without any non-ASCII characters in the markup). This makes it
+ * possible to scan a buffer passed to {@link #read(ByteBuffer, OrigamiBuilder)} in place, without copying or decoding it.
+ */
+public class ScanningOrigamiReader extends OrigamiReader {
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object read(ByteBuffer buffer, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		// Scan the document. The scanner does not change the position or limit of the buffer.
+		new OrigamiScanner(buffer)
+				.scanDocument(builder);
+		// Return the resulting data structure.
+		return builder.build();
+	}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object read(InputStream inputStream, OrigamiBuilder<?> builder) throws OrigamiDocumentFormatException, IOException {
+		// Read the entire input stream, which also closes it, and scan the document.
+		return read(Streams.readFully(inputStream), builder);
+	}
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readFrame(ByteBuffer buffer, FrameIndex index, int frameIndex, FrameBuilder builder)
+			throws OrigamiDocumentFormatException, IOException {
+		new OrigamiScanner(index.sliceFrame(buffer, frameIndex))
+				.scanFrameElement(builder);
+	}
+}
\ No newline at end of file
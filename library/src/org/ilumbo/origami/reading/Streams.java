@@ -0,0 +1,37 @@
+package org.ilumbo.origami.reading;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for the readers that operate on bytes rather than on an XML pull parser.
+ */
+/* package */ final class Streams {
+	private Streams() {
+	}
+	/**
+	 * Reads the passed input stream until its end, and returns a buffer which wraps the bytes that were read. The input stream
+	 * is closed afterwards.
+	 */
+	public static final ByteBuffer readFully(InputStream inputStream) throws IOException {
+		// Start with a buffer of the size the input stream claims to have available, but at least 4KiB.
+		byte[] bytes = new byte[Math.max(inputStream.available() + 1, 0x1000)];
+		int length = 0;
+		int readLength;
+		while (-1 != (readLength = inputStream.read(bytes, length, bytes.length - length))) {
+			if (bytes.length == (length += readLength)) {
+				final byte[] largerBytes = new byte[bytes.length << 1];
+				System.arraycopy(bytes, 0, largerBytes, 0, length);
+				bytes = largerBytes;
+			}
+		}
+		// Close the input stream.
+		try {
+			inputStream.close();
+		} catch (IOException exception) {
+			android.util.Log.w(Streams.class.getSimpleName(), exception);
+		}
+		return ByteBuffer.wrap(bytes, 0, length);
+	}
+}
\ No newline at end of file
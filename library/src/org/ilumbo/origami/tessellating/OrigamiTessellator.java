@@ -0,0 +1,361 @@
+package org.ilumbo.origami.tessellating;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import org.ilumbo.origami.geometry.PolygonEdges;
+import org.ilumbo.origami.reading.OrigamiBuilder;
+
+/**
+ * Builds a tessellated origami, which holds the triangles of every polygon in packed vertex and index buffers that can be
+ * drawn by OpenGL ES. This is an alternative to filling paths on a canvas: a frame can be drawn in a single call.
+ *
+ * Every polygon is decomposed into trapezoids in exact coordinates, which respects the non-zero rule the way a path is filled,
+ * including polygons with multiple sub-paths and polygons which intersect themselves. The polygon is cut into horizontal bands
+ * at the height of every vertex and of every point where two edges cross, so no edges cross inside a band. Within a band, the
+ * spans in which the winding is non-zero become trapezoids, which become one or two triangles each. Polygons which are fully
+ * transparent produce no triangles.
+ *
+ * As the indices are unsigned shorts relative to the first vertex of their frame, a frame can have at most 65536 vertices.
+ * Building a polygon throws an {@link IllegalStateException} once its frame would exceed that, so reading a document from an
+ * untrusted source can fail there.
+ *
+ * Frames and polygons are expected to be built one after another, as the readers do.
+ */
+public final class OrigamiTessellator implements OrigamiBuilder<TessellatedOrigami> {
+	private final class FrameTessellator implements FrameBuilder {
+		private final class PolygonTessellator implements PolygonBuilder {
+			/**
+			 * The alpha of the fill.
+			 */
+			private int alpha;
+			/**
+			 * The lightness of the fill.
+			 */
+			private int lightness;
+			public PolygonTessellator() {
+				polygonEdges.clear();
+			}
+			@Override
+			public final void addClose() {
+				polygonEdges.addClose();
+			}
+			@Override
+			public final void addLine(float x, float y, int exactX, int exactY) {
+				polygonEdges.addLine(x, y, exactX, exactY);
+			}
+			@Override
+			public final void addMove(float x, float y, int exactX, int exactY) {
+				polygonEdges.addMove(x, y, exactX, exactY);
+			}
+			@Override
+			public final void build() {
+				polygonEdges.build();
+				tessellatePolygon(lightness / 255f, alpha / 255f);
+				polygonIndexOffsets[++polygonCount] = indexCount;
+			}
+			@Override
+			public final void setFill(int lightness, int alpha) {
+				this.lightness = lightness;
+				this.alpha = alpha;
+			}
+		}
+		@Override
+		public final void build() {
+			framePolygonOffsets[++frameCount] = polygonCount;
+			frameVertexOffsets[frameCount] = vertexCount;
+		}
+		@Override
+		public final PolygonBuilder createPolygonBuilder() {
+			// Ensure there is room for the offset of the polygon after this one.
+			if (polygonIndexOffsets.length == polygonCount + 1) {
+				polygonIndexOffsets = Arrays.copyOf(polygonIndexOffsets, (polygonCount + 1) << 1);
+			}
+			return this.new PolygonTessellator();
+		}
+	}
+	/**
+	 * The distance in exact units below which two heights or two x coordinates are considered the same.
+	 */
+	private static final double EPSILON = 1e-6;
+	/**
+	 * The largest number of vertices a frame can have, as the indices are unsigned shorts relative to the first vertex of
+	 * their frame.
+	 */
+	private static final int MAXIMUM_FRAME_VERTEX_COUNT = 0x10000;
+	/**
+	 * The number of heights in the array below.
+	 */
+	private int bandYCount;
+	/**
+	 * The heights at which the current polygon is cut into bands, in exact units.
+	 */
+	private double[] bandYs;
+	/**
+	 * For every crossing of an edge and the current band, the x coordinate at the bottom of the band.
+	 */
+	private double[] crossingBottomXs;
+	/**
+	 * For every crossing of an edge and the current band, +1 if the edge goes down or -1 if it goes up.
+	 */
+	private int[] crossingDirections;
+	/**
+	 * For every crossing of an edge and the current band, the x coordinate at the top of the band.
+	 */
+	private double[] crossingTopXs;
+	/**
+	 * The number of frames which have been built.
+	 */
+	private int frameCount;
+	/**
+	 * For every frame, the index of its first polygon. This array has one extra element at the end, which is the total number
+	 * of polygons.
+	 */
+	private int[] framePolygonOffsets;
+	/**
+	 * For every frame, the index of its first vertex. This array has one extra element at the end, which is the total number of
+	 * vertices.
+	 */
+	private int[] frameVertexOffsets;
+	/**
+	 * The number of indices which have been added.
+	 */
+	private int indexCount;
+	/**
+	 * The indices, relative to the first vertex of their frame.
+	 */
+	private short[] indices;
+	/**
+	 * The number of polygons which have been built.
+	 */
+	private int polygonCount;
+	/**
+	 * The edges of the current polygon, in exact coordinates.
+	 */
+	private final PolygonEdges polygonEdges;
+	/**
+	 * For every polygon, the position of its first index. This array has one extra element at the end, which is the total
+	 * number of indices.
+	 */
+	private int[] polygonIndexOffsets;
+	/**
+	 * The number of vertices which have been added.
+	 */
+	private int vertexCount;
+	/**
+	 * The vertices, as {@link TessellatedOrigami#VERTEX_SIZE} floats each.
+	 */
+	private float[] vertices;
+	public OrigamiTessellator() {
+		bandYs = new double[64];
+		crossingBottomXs = new double[16];
+		crossingDirections = new int[16];
+		crossingTopXs = new double[16];
+		framePolygonOffsets = new int[8];
+		frameVertexOffsets = new int[8];
+		indices = new short[768];
+		polygonEdges = new PolygonEdges();
+		polygonIndexOffsets = new int[32];
+		vertices = new float[512 * TessellatedOrigami.VERTEX_SIZE];
+	}
+	/**
+	 * Adds the passed height at which the current polygon is cut.
+	 */
+	private final void addBandY(double y) {
+		if (bandYs.length == bandYCount) {
+			bandYs = Arrays.copyOf(bandYs, bandYCount << 1);
+		}
+		bandYs[bandYCount++] = y;
+	}
+	/**
+	 * Adds a triangle between the vertices with the passed indices, which are relative to the first vertex of the frame.
+	 */
+	private final void addTriangle(int firstIndex, int secondIndex, int thirdIndex) {
+		if (indices.length < indexCount + 3) {
+			indices = Arrays.copyOf(indices, indexCount << 1);
+		}
+		indices[indexCount++] = (short) firstIndex;
+		indices[indexCount++] = (short) secondIndex;
+		indices[indexCount++] = (short) thirdIndex;
+	}
+	/**
+	 * Adds the trapezoid between the passed x coordinates at the top and the bottom of the band between the passed heights, as
+	 * one or two triangles.
+	 */
+	private final void addTrapezoid(double topY, double bottomY, double leftTopX, double rightTopX, double leftBottomX,
+			double rightBottomX, float grey, float alpha) {
+		final boolean topEmpty = rightTopX - leftTopX < EPSILON;
+		final boolean bottomEmpty = rightBottomX - leftBottomX < EPSILON;
+		if (topEmpty && bottomEmpty) {
+			return;
+		}
+		// Ensure the indices of the vertices fit in the unsigned shorts.
+		if (vertexCount + 4 - frameVertexOffsets[frameCount] > MAXIMUM_FRAME_VERTEX_COUNT) {
+			throw new IllegalStateException("A frame cannot contain more than 65536 vertices");
+		}
+		final int firstIndex = vertexCount - frameVertexOffsets[frameCount];
+		addVertex(leftTopX, topY, grey, alpha);
+		if (topEmpty) {
+			addVertex(rightBottomX, bottomY, grey, alpha);
+			addVertex(leftBottomX, bottomY, grey, alpha);
+			addTriangle(firstIndex, firstIndex + 1, firstIndex + 2);
+		} else if (bottomEmpty) {
+			addVertex(rightTopX, topY, grey, alpha);
+			addVertex(leftBottomX, bottomY, grey, alpha);
+			addTriangle(firstIndex, firstIndex + 1, firstIndex + 2);
+		} else {
+			addVertex(rightTopX, topY, grey, alpha);
+			addVertex(rightBottomX, bottomY, grey, alpha);
+			addVertex(leftBottomX, bottomY, grey, alpha);
+			addTriangle(firstIndex, firstIndex + 1, firstIndex + 2);
+			addTriangle(firstIndex, firstIndex + 2, firstIndex + 3);
+		}
+	}
+	/**
+	 * Adds a vertex at the passed exact coordinates, with the passed grey and alpha.
+	 */
+	private final void addVertex(double exactX, double exactY, float grey, float alpha) {
+		int index = vertexCount++ * TessellatedOrigami.VERTEX_SIZE;
+		if (vertices.length < index + TessellatedOrigami.VERTEX_SIZE) {
+			vertices = Arrays.copyOf(vertices, index << 1);
+		}
+		vertices[index++] = (float) (exactX / 2048);
+		vertices[index++] = (float) (exactY / 2048);
+		vertices[index++] = grey;
+		vertices[index++] = grey;
+		vertices[index++] = grey;
+		vertices[index] = alpha;
+	}
+	@Override
+	public final TessellatedOrigami build() {
+		final FloatBuffer vertexBuffer = ByteBuffer.allocateDirect(vertexCount * TessellatedOrigami.VERTEX_SIZE << 2)
+				.order(ByteOrder.nativeOrder())
+				.asFloatBuffer();
+		vertexBuffer.put(vertices, 0, vertexCount * TessellatedOrigami.VERTEX_SIZE);
+		vertexBuffer.position(0);
+		final ShortBuffer indexBuffer = ByteBuffer.allocateDirect(indexCount << 1)
+				.order(ByteOrder.nativeOrder())
+				.asShortBuffer();
+		indexBuffer.put(indices, 0, indexCount);
+		indexBuffer.position(0);
+		return new TessellatedOrigami(Arrays.copyOf(framePolygonOffsets, frameCount + 1),
+				Arrays.copyOf(frameVertexOffsets, frameCount + 1),
+				Arrays.copyOf(polygonIndexOffsets, polygonCount + 1),
+				vertexBuffer, indexBuffer);
+	}
+	@Override
+	public final FrameBuilder createFrameBuilder() {
+		// Ensure there is room for the offsets of the frame after this one.
+		if (framePolygonOffsets.length == frameCount + 1) {
+			framePolygonOffsets = Arrays.copyOf(framePolygonOffsets, (frameCount + 1) << 1);
+			frameVertexOffsets = Arrays.copyOf(frameVertexOffsets, (frameCount + 1) << 1);
+		}
+		return this.new FrameTessellator();
+	}
+	/**
+	 * Adds the triangles of the band of the current polygon between the passed heights.
+	 */
+	private final void tessellateBand(double topY, double bottomY, float grey, float alpha) {
+		// Find the edges which span the band, sorted from left to right. As no edges cross inside the band, their order is the
+		// same at any height within it.
+		final int edgeCount = polygonEdges.getEdgeCount();
+		int crossingCount = 0;
+		for (int edgeIndex = 0; edgeCount != edgeIndex; edgeIndex++) {
+			final int startY = polygonEdges.getStartY(edgeIndex);
+			final int endY = polygonEdges.getEndY(edgeIndex);
+			if (startY == endY ||
+					Math.min(startY, endY) > topY + EPSILON || Math.max(startY, endY) < bottomY - EPSILON) {
+				continue;
+			}
+			final int startX = polygonEdges.getStartX(edgeIndex);
+			final double slope = (double) (polygonEdges.getEndX(edgeIndex) - startX) / (endY - startY);
+			final double topX = startX + (topY - startY) * slope;
+			final double bottomX = startX + (bottomY - startY) * slope;
+			if (crossingTopXs.length == crossingCount) {
+				crossingTopXs = Arrays.copyOf(crossingTopXs, crossingCount << 1);
+				crossingBottomXs = Arrays.copyOf(crossingBottomXs, crossingCount << 1);
+				crossingDirections = Arrays.copyOf(crossingDirections, crossingCount << 1);
+			}
+			// Insert the crossing, keeping the crossings sorted by their x coordinate halfway the band.
+			int crossingIndex = crossingCount++;
+			while (0 != crossingIndex && crossingTopXs[crossingIndex - 1] + crossingBottomXs[crossingIndex - 1] > topX + bottomX) {
+				crossingTopXs[crossingIndex] = crossingTopXs[crossingIndex - 1];
+				crossingBottomXs[crossingIndex] = crossingBottomXs[crossingIndex - 1];
+				crossingDirections[crossingIndex] = crossingDirections[crossingIndex - 1];
+				crossingIndex--;
+			}
+			crossingTopXs[crossingIndex] = topX;
+			crossingBottomXs[crossingIndex] = bottomX;
+			crossingDirections[crossingIndex] = endY > startY ? 1 : -1;
+		}
+		// A span starts where the winding becomes non-zero, and ends where it becomes zero again.
+		int winding = 0;
+		int spanStartIndex = 0;
+		for (int crossingIndex = 0; crossingCount != crossingIndex; crossingIndex++) {
+			final int previousWinding = winding;
+			winding += crossingDirections[crossingIndex];
+			if (0 == previousWinding && 0 != winding) {
+				spanStartIndex = crossingIndex;
+			} else if (0 != previousWinding && 0 == winding) {
+				addTrapezoid(topY, bottomY, crossingTopXs[spanStartIndex], crossingTopXs[crossingIndex],
+						crossingBottomXs[spanStartIndex], crossingBottomXs[crossingIndex], grey, alpha);
+			}
+		}
+	}
+	/**
+	 * Adds the triangles of the polygon whose edges are in the polygon edges.
+	 */
+	private final void tessellatePolygon(float grey, float alpha) {
+		final int edgeCount = polygonEdges.getEdgeCount();
+		if (0 == edgeCount || 0 == alpha) {
+			return;
+		}
+		// Collect the heights at which the polygon is cut: those of the vertices, and those at which two edges cross. (As every
+		// sub-path is closed, every vertex is the start of an edge.)
+		bandYCount = 0;
+		for (int edgeIndex = 0; edgeCount != edgeIndex; edgeIndex++) {
+			addBandY(polygonEdges.getStartY(edgeIndex));
+			final int startX = polygonEdges.getStartX(edgeIndex);
+			final int startY = polygonEdges.getStartY(edgeIndex);
+			final int deltaX = polygonEdges.getEndX(edgeIndex) - startX;
+			final int deltaY = polygonEdges.getEndY(edgeIndex) - startY;
+			for (int otherEdgeIndex = edgeIndex + 1; edgeCount != otherEdgeIndex; otherEdgeIndex++) {
+				final int otherStartX = polygonEdges.getStartX(otherEdgeIndex);
+				final int otherStartY = polygonEdges.getStartY(otherEdgeIndex);
+				final int otherDeltaX = polygonEdges.getEndX(otherEdgeIndex) - otherStartX;
+				final int otherDeltaY = polygonEdges.getEndY(otherEdgeIndex) - otherStartY;
+				final long denominator = (long) deltaX * otherDeltaY - (long) deltaY * otherDeltaX;
+				if (0 == denominator) {
+					continue;
+				}
+				// The edges cross at start + t * delta = otherStart + u * otherDelta. Only crossings strictly inside both edges
+				// matter, as the ends of the edges are vertices.
+				long tNumerator = (long) (otherStartX - startX) * otherDeltaY - (long) (otherStartY - startY) * otherDeltaX;
+				long uNumerator = (long) (otherStartX - startX) * deltaY - (long) (otherStartY - startY) * deltaX;
+				long positiveDenominator = denominator;
+				if (denominator < 0) {
+					tNumerator = -tNumerator;
+					uNumerator = -uNumerator;
+					positiveDenominator = -denominator;
+				}
+				if (tNumerator > 0 && tNumerator < positiveDenominator && uNumerator > 0 && uNumerator < positiveDenominator) {
+					addBandY(startY + (double) tNumerator / positiveDenominator * deltaY);
+				}
+			}
+		}
+		// Tessellate the bands between the heights, skipping those without height.
+		Arrays.sort(bandYs, 0, bandYCount);
+		double topY = bandYs[0];
+		for (int bandIndex = 1; bandYCount != bandIndex; bandIndex++) {
+			final double bottomY = bandYs[bandIndex];
+			if (bottomY - topY < EPSILON) {
+				continue;
+			}
+			tessellateBand(topY, bottomY, grey, alpha);
+			topY = bottomY;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package org.ilumbo.origami.tessellating;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * An origami document tessellated into triangles, stored in one buffer of vertices and one buffer of indices. Both buffers are
+ * direct and in the native byte order, so they can be passed to OpenGL ES as they are.
+ *
+ * Every vertex consists of {@link #VERTEX_SIZE} floats: the x and y coordinates (in the same unit as the coordinates passed
+ * to the builders, so 0 to 1) followed by the red, green, blue and alpha channels of the fill of its polygon (0 to 1, not
+ * premultiplied). The indices are relative to the first vertex of their frame. To draw a frame in a single call, point the
+ * vertex attributes at the first vertex of the frame and draw the indices of the frame as triangles.
+ *
+ * A tessellated origami is immutable. The buffer getters return duplicates which share the content but have their own
+ * position and limit, so multiple threads can use it at the same time.
+ */
+public final class TessellatedOrigami {
+	/**
+	 * The offset of the colour in a vertex, in floats.
+	 */
+	public static final int COLOUR_OFFSET = 2;
+	/**
+	 * The offset of the position in a vertex, in floats.
+	 */
+	public static final int POSITION_OFFSET = 0;
+	/**
+	 * The number of floats in a vertex.
+	 */
+	public static final int VERTEX_SIZE = 6;
+	/**
+	 * For every frame, the index of its first polygon. This array has one extra element at the end, which is the total number
+	 * of polygons.
+	 */
+	private final int[] framePolygonOffsets;
+	/**
+	 * For every frame, the index of its first vertex. This array has one extra element at the end, which is the total number of
+	 * vertices.
+	 */
+	private final int[] frameVertexOffsets;
+	/**
+	 * The indices, three for every triangle.
+	 */
+	private final ShortBuffer indices;
+	/**
+	 * For every polygon, the position of its first index. This array has one extra element at the end, which is the total
+	 * number of indices.
+	 */
+	private final int[] polygonIndexOffsets;
+	/**
+	 * The vertices.
+	 */
+	private final FloatBuffer vertices;
+	/* package */ TessellatedOrigami(int[] framePolygonOffsets, int[] frameVertexOffsets, int[] polygonIndexOffsets,
+			FloatBuffer vertices, ShortBuffer indices) {
+		this.framePolygonOffsets = framePolygonOffsets;
+		this.frameVertexOffsets = frameVertexOffsets;
+		this.polygonIndexOffsets = polygonIndexOffsets;
+		this.vertices = vertices;
+		this.indices = indices;
+	}
+	/**
+	 * Returns the number of frames.
+	 */
+	public final int getFrameCount() {
+		return framePolygonOffsets.length - 1;
+	}
+	/**
+	 * Returns the number of indices of the frame with the passed index.
+	 */
+	public final int getFrameIndexCount(int frameIndex) {
+		return polygonIndexOffsets[framePolygonOffsets[frameIndex + 1]] - polygonIndexOffsets[framePolygonOffsets[frameIndex]];
+	}
+	/**
+	 * Returns the position of the first index of the frame with the passed index.
+	 */
+	public final int getFrameIndexOffset(int frameIndex) {
+		return polygonIndexOffsets[framePolygonOffsets[frameIndex]];
+	}
+	/**
+	 * Returns the number of vertices of the frame with the passed index.
+	 */
+	public final int getFrameVertexCount(int frameIndex) {
+		return frameVertexOffsets[frameIndex + 1] - frameVertexOffsets[frameIndex];
+	}
+	/**
+	 * Returns the index of the first vertex of the frame with the passed index. Multiply by {@link #VERTEX_SIZE} for the
+	 * position in the vertex buffer.
+	 */
+	public final int getFrameVertexOffset(int frameIndex) {
+		return frameVertexOffsets[frameIndex];
+	}
+	/**
+	 * Returns the indices of all of the frames, as a duplicate of the buffer.
+	 */
+	public final ShortBuffer getIndices() {
+		return indices.duplicate();
+	}
+	/**
+	 * Returns the number of polygons in the frame with the passed index.
+	 */
+	public final int getPolygonCount(int frameIndex) {
+		return framePolygonOffsets[frameIndex + 1] - framePolygonOffsets[frameIndex];
+	}
+	/**
+	 * Returns the number of indices of the polygon with the passed index in the frame with the passed index.
+	 */
+	public final int getPolygonIndexCount(int frameIndex, int polygonIndex) {
+		final int index = framePolygonOffsets[frameIndex] + polygonIndex;
+		return polygonIndexOffsets[index + 1] - polygonIndexOffsets[index];
+	}
+	/**
+	 * Returns the position of the first index of the polygon with the passed index in the frame with the passed index.
+	 */
+	public final int getPolygonIndexOffset(int frameIndex, int polygonIndex) {
+		return polygonIndexOffsets[framePolygonOffsets[frameIndex] + polygonIndex];
+	}
+	/**
+	 * Returns the vertices of all of the frames, as a duplicate of the buffer.
+	 */
+	public final FloatBuffer getVertices() {
+		return vertices.duplicate();
+	}
+}
\ No newline at end of file